@@ -0,0 +1,98 @@
+package org.kartikey.tweet_scheduler.benchmarks;
+
+import org.kartikey.tweet_scheduler.TweetSchedulerApplication;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.kartikey.tweet_scheduler.service.ReadyQueueIndex;
+import org.kartikey.tweet_scheduler.service.TweetService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+// Picking the next tweet to post, by the database query and by the in-memory ready index,
+// against the real application context on in-memory H2. Half the rows are already posted.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class NextTweetSelectionBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TweetRepository tweetRepository;
+    private TweetService tweetService;
+    private ReadyQueueIndex readyQueueIndex;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TweetSchedulerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:selection;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--TWITTER_OAUTH2_CLIENT_ID=benchmark",
+                        "--TWITTER_OAUTH2_CLIENT_SECRET=benchmark",
+                        "--TWITTER_REDIRECT_URI=http://localhost/callback");
+
+        tweetRepository = context.getBean(TweetRepository.class);
+        tweetService = context.getBean(TweetService.class);
+        readyQueueIndex = context.getBean(ReadyQueueIndex.class);
+
+        // Bulk-load in one statement; going through JPA would make 1M-row setup take minutes
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO tweets (id, text, priority, is_posted, status, created_at, posted_at) " +
+                        "SELECT X, 'benchmark tweet ' || X, MOD(X, 10), MOD(X, 2) = 0, " +
+                        "CASEWHEN(MOD(X, 2) = 0, 'POSTED', 'PENDING'), " +
+                        "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), " +
+                        "CASEWHEN(MOD(X, 2) = 0, TIMESTAMP '2024-06-01 00:00:00', NULL) " +
+                        "FROM SYSTEM_RANGE(1, ?)", rows);
+        readyQueueIndex.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Tweet> databaseQuery() {
+        return tweetRepository.findNextTweetToPost(LocalDateTime.now(), Limit.of(1));
+    }
+
+    @Benchmark
+    public OptionalLong readyIndexPeek() {
+        return readyQueueIndex.peek(LocalDateTime.now());
+    }
+
+    // Index peek plus the findById that confirms the candidate
+    @Benchmark
+    public Optional<Tweet> getNextTweetToPost() {
+        return tweetService.getNextTweetToPost();
+    }
+}
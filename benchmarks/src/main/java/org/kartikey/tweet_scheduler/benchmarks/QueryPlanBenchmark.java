@@ -0,0 +1,145 @@
+package org.kartikey.tweet_scheduler.benchmarks;
+
+import org.kartikey.tweet_scheduler.TweetSchedulerApplication;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// findNextTweetToPost and findScheduledTweets with and without the V2 migration indexes.
+// The plans are printed at setup so the seq scan -> index scan change is visible next to the timings.
+// Runs on in-memory H2 by default; point -Dbenchmark.jdbc.url (plus .username/.password) at an
+// empty Postgres database to see the partial indexes. The oldest 90% of rows are posted; 1% of the
+// pending rest is scheduled in the future.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class QueryPlanBenchmark {
+
+    private static final List<String> MIGRATION_INDEXES = List.of(
+            "idx_tweets_pending_order", "idx_tweets_pending_scheduled", "idx_tweets_posted_at");
+
+    private static final String NEXT_TWEET_SQL = "SELECT id FROM tweets WHERE is_posted = false " +
+            "AND (scheduled_for IS NULL OR scheduled_for <= CURRENT_TIMESTAMP) " +
+            "ORDER BY priority DESC, created_at ASC, id ASC LIMIT 1";
+
+    private static final String SCHEDULED_SQL = "SELECT id FROM tweets WHERE is_posted = false " +
+            "AND scheduled_for > CURRENT_TIMESTAMP ORDER BY scheduled_for ASC";
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private TweetRepository tweetRepository;
+    private String vendor;
+
+    @Setup
+    public void setUp() {
+        String url = System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:plans;DB_CLOSE_DELAY=-1");
+        boolean postgres = url.startsWith("jdbc:postgresql:");
+        vendor = postgres ? "postgresql" : "h2";
+
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + System.getProperty("benchmark.jdbc.username", "sa"),
+                "--spring.datasource.password=" + System.getProperty("benchmark.jdbc.password", ""),
+                "--TWITTER_OAUTH2_CLIENT_ID=benchmark",
+                "--TWITTER_OAUTH2_CLIENT_SECRET=benchmark",
+                "--TWITTER_REDIRECT_URI=http://localhost/callback"));
+        if (!postgres) {
+            args.addAll(List.of(
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+        }
+        context = new SpringApplicationBuilder(TweetSchedulerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+
+        tweetRepository = context.getBean(TweetRepository.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        jdbc.update("DELETE FROM tweets");
+        if (postgres) {
+            jdbc.update("INSERT INTO tweets (id, text, priority, is_posted, status, created_at, posted_at, scheduled_for) " +
+                    "SELECT x, 'plan tweet ' || x, x % 10, x <= ? * 0.9, " +
+                    "CASE WHEN x <= ? * 0.9 THEN 'POSTED' ELSE 'PENDING' END, " +
+                    "TIMESTAMP '2024-01-01' + x * INTERVAL '1 second', " +
+                    "CASE WHEN x <= ? * 0.9 THEN TIMESTAMP '2024-06-01' END, " +
+                    "CASE WHEN x > ? * 0.9 AND x % 100 = 0 THEN TIMESTAMP '2099-01-01' + x * INTERVAL '1 second' END " +
+                    "FROM generate_series(1, ?) AS x", rows, rows, rows, rows, rows);
+        } else {
+            jdbc.update("INSERT INTO tweets (id, text, priority, is_posted, status, created_at, posted_at, scheduled_for) " +
+                    "SELECT X, 'plan tweet ' || X, MOD(X, 10), X <= ? * 0.9, " +
+                    "CASEWHEN(X <= ? * 0.9, 'POSTED', 'PENDING'), " +
+                    "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), " +
+                    "CASEWHEN(X <= ? * 0.9, TIMESTAMP '2024-06-01 00:00:00', NULL), " +
+                    "CASEWHEN(X > ? * 0.9 AND MOD(X, 100) = 0, DATEADD('SECOND', X, TIMESTAMP '2099-01-01 00:00:00'), NULL) " +
+                    "FROM SYSTEM_RANGE(1, ?)", rows, rows, rows, rows, rows);
+        }
+        if (!indexed) {
+            MIGRATION_INDEXES.forEach(index -> jdbc.execute("DROP INDEX IF EXISTS " + index));
+        }
+        jdbc.execute(postgres ? "ANALYZE tweets" : "ANALYZE TABLE tweets");
+
+        System.out.println();
+        System.out.println("indexed=" + indexed + ", rows=" + rows);
+        System.out.println("findNextTweetToPost plan:\n" + explain(jdbc, NEXT_TWEET_SQL));
+        System.out.println("findScheduledTweets plan:\n" + explain(jdbc, SCHEDULED_SQL));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM tweets");
+        // Put the indexes back, in case the database outlives this run
+        if (!indexed) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/migration/" + vendor + "/V2__tweet_indexes.sql"))
+                    .execute(context.getBean(DataSource.class));
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Tweet> findNextTweetToPost() {
+        return tweetRepository.findNextTweetToPost(LocalDateTime.now(), Limit.of(1));
+    }
+
+    @Benchmark
+    public List<Tweet> findScheduledTweets() {
+        return tweetRepository.findScheduledTweets(LocalDateTime.now());
+    }
+
+    private static String explain(JdbcTemplate jdbc, String sql) {
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
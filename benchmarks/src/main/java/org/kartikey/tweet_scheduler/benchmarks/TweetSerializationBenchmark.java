@@ -0,0 +1,97 @@
+package org.kartikey.tweet_scheduler.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kartikey.tweet_scheduler.dto.TweetCursor;
+import org.kartikey.tweet_scheduler.dto.TweetPage;
+import org.kartikey.tweet_scheduler.dto.TweetSummary;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the listing endpoints: full entities vs. the TweetSummary projection, the
+// TweetPage the list endpoints return, and the NDJSON stream.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TweetSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    // Built the way Spring Boot builds the application's ObjectMapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<Tweet> tweets;
+    private List<TweetSummary> summaries;
+    private TweetPage page;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        tweets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Tweet tweet = new Tweet("Scheduled tweet number " + i + " about performance work", i % 10);
+            tweet.setId((long) i + 1);
+            tweet.setCreatedAt(start.plusSeconds(i));
+            if (i % 2 == 0) {
+                tweet.setPosted(true);
+                tweet.setStatus(TweetStatus.POSTED);
+                tweet.setPostedAt(start.plusDays(1).plusSeconds(i));
+                tweet.setTwitterId(String.valueOf(1_700_000_000_000_000_000L + i));
+            }
+            tweets.add(tweet);
+        }
+        summaries = tweets.stream()
+                .map(tweet -> new TweetSummary(tweet.getId(), tweet.getText(), tweet.getPriority(), tweet.getStatus(),
+                        tweet.getAccountId(), tweet.getScheduledFor(), tweet.getPostedAt(), tweet.getCreatedAt()))
+                .toList();
+        page = new TweetPage(summaries, TweetCursor.of(summaries.get(size - 1)).encode());
+    }
+
+    @Benchmark
+    public byte[] tweetList() throws IOException {
+        return objectMapper.writeValueAsBytes(tweets);
+    }
+
+    @Benchmark
+    public byte[] summaryList() throws IOException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] tweetPage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    // Mirrors TweetController's NDJSON writer: one document and a newline per tweet
+    @Benchmark
+    public int ndjsonStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 256);
+        for (Tweet tweet : tweets) {
+            out.write(objectMapper.writeValueAsBytes(tweet));
+            out.write('\n');
+        }
+        return out.size();
+    }
+}
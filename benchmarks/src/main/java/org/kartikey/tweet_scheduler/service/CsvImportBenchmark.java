@@ -0,0 +1,94 @@
+package org.kartikey.tweet_scheduler.service;
+
+import com.opencsv.CSVReader;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-row cost of the CSV import front end: header/priority checks, validation and opencsv
+// parsing. Lives in the service package to reach the package-private parsing methods.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvImportBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private final CsvImportService service = new CsvImportService();
+
+    private String number = "42";
+    private String word = "high";
+    private byte[] csv;
+    private List<String[]> records;
+    private final Map<Long, Boolean> knownAccounts = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        StringBuilder file = new StringBuilder("id,text,priority\n");
+        records = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            // Mix in the rows the importer has to handle: non-numeric priorities and empty text
+            String text = i % 50 == 0 ? "" : "Scheduled tweet number " + i + " about performance work";
+            String priority = i % 10 == 0 ? "high" : String.valueOf(i % 5);
+            file.append(i).append(",\"").append(text).append("\",").append(priority).append('\n');
+            records.add(new String[]{String.valueOf(i), text, priority});
+        }
+        csv = file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public boolean isNumericOnNumber() {
+        return CsvImportService.isNumeric(number);
+    }
+
+    // The exception-driven path: every call builds and throws a NumberFormatException
+    @Benchmark
+    public boolean isNumericOnWord() {
+        return CsvImportService.isNumeric(word);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseRecord(Blackhole blackhole) {
+        long row = 1;
+        for (String[] record : records) {
+            blackhole.consume(service.parseRecord(record, ++row, knownAccounts));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void readAndParse(Blackhole blackhole) throws Exception {
+        try (CSVReader reader = new CSVReader(new InputStreamReader(new ByteArrayInputStream(csv), StandardCharsets.UTF_8))) {
+            reader.readNext();
+            long row = 1;
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                Tweet tweet = service.parseRecord(record, ++row, knownAccounts);
+                blackhole.consume(tweet);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.kartikey.tweet_scheduler.controller;
+
+import jakarta.validation.Valid;
+import org.kartikey.tweet_scheduler.dto.AccountRequest;
+import org.kartikey.tweet_scheduler.model.TwitterToken;
+import org.kartikey.tweet_scheduler.service.TwitterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/accounts")
+public class AccountController {
+
+    @Autowired
+    private TwitterService twitterService;
+
+    // Tokens are never returned
+    @GetMapping
+    public List<Map<String, Object>> getAccounts() {
+        return twitterService.getAccounts();
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> addAccount(@Valid @RequestBody AccountRequest request) {
+        TwitterToken account = twitterService.addAccount(request.name(), request.accessToken(),
+                request.refreshToken(), request.expiresIn() != null ? request.expiresIn() : 7200);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(Map.of("id", account.getId(), "name", account.getName()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
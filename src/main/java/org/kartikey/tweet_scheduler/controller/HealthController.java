@@ -1,33 +1,39 @@
 package org.kartikey.tweet_scheduler.controller;
 
+import org.kartikey.tweet_scheduler.service.DatabaseHealthProbe;
+import org.kartikey.tweet_scheduler.service.TweetCache;
+import org.kartikey.tweet_scheduler.service.TwitterHttpTransport;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.SQLException;
 import java.util.Map;
 
 @RestController
 public class HealthController {
 
     @Autowired
-    private DataSource dataSource;
+    private DatabaseHealthProbe databaseHealthProbe;
 
+    @Autowired
+    private TwitterHttpTransport twitterHttpTransport;
+
+    @Autowired
+    private TweetCache tweetCache;
+
+    // Served from the background probe; never takes a connection itself
     @GetMapping("/health/db")
-    public Map<String, String> checkDatabase() {
-        try (Connection connection = dataSource.getConnection()) {
-            return Map.of(
-                    "status", "UP",
-                    "database", connection.getMetaData().getDatabaseProductName(),
-                    "url", connection.getMetaData().getURL()
-            );
-        } catch (SQLException e) {
-            return Map.of(
-                    "status", "DOWN",
-                    "error", e.getMessage()
-            );
-        }
+    public Map<String, Object> checkDatabase() {
+        return databaseHealthProbe.snapshot();
+    }
+
+    @GetMapping("/health/http")
+    public Map<String, Object> checkTwitterTransport() {
+        return twitterHttpTransport.metrics().snapshot();
+    }
+
+    @GetMapping("/health/cache")
+    public Map<String, Object> checkTweetCache() {
+        return tweetCache.stats();
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,44 @@
 package org.kartikey.tweet_scheduler.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kartikey.tweet_scheduler.dto.PostBatchRequest;
+import org.kartikey.tweet_scheduler.dto.PostBatchResult;
+import org.kartikey.tweet_scheduler.dto.PostingPlan;
+import org.kartikey.tweet_scheduler.dto.TweetPage;
+import org.kartikey.tweet_scheduler.dto.TweetStats;
+import org.kartikey.tweet_scheduler.dto.TweetSummary;
 import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetHistory;
+import org.kartikey.tweet_scheduler.scheduler.PostingPlanner;
+import org.kartikey.tweet_scheduler.dto.ImportJobStatus;
+import org.kartikey.tweet_scheduler.service.BatchPostingService;
 import org.kartikey.tweet_scheduler.service.CsvImportService;
+import org.kartikey.tweet_scheduler.service.DuplicateTweetException;
+import org.kartikey.tweet_scheduler.service.ImportJob;
+import org.kartikey.tweet_scheduler.service.RateLimitedException;
+import org.kartikey.tweet_scheduler.service.TweetEventStream;
 import org.kartikey.tweet_scheduler.service.TweetService;
+import org.kartikey.tweet_scheduler.service.TweetStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/tweets")
@@ -22,29 +50,131 @@ public class TweetController {
     @Autowired
     private CsvImportService csvImportService;
 
+    @Autowired
+    private TweetStatsService tweetStatsService;
+
+    @Autowired
+    private BatchPostingService batchPostingService;
+
+    @Autowired
+    private PostingPlanner postingPlanner;
+
+    @Autowired
+    private TweetEventStream tweetEventStream;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${tweets.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${tweets.page.max-size:1000}")
+    private int maxPageSize;
+
     @GetMapping
-    public List<Tweet> getAllTweets() {
-        return tweetService.getAllTweets();
+    public TweetPage getAllTweets(@RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit, WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return tweetService.getTweetPage(cursor, pageSize(limit), false);
     }
 
     @GetMapping("/unposted")
-    public List<Tweet> getUnpostedTweets() {
-        return tweetService.getAllUnpostedTweets();
+    public TweetPage getUnpostedTweets(@RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer limit, WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return tweetService.getTweetPage(cursor, pageSize(limit), true);
+    }
+
+    @GetMapping("/scheduled")
+    public List<TweetSummary> getScheduledTweets(WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return tweetService.getScheduledTweets();
+    }
+
+    // Posted tweets in [from, to], served from the partitioned history table
+    @GetMapping("/history")
+    public List<TweetHistory> getPostedTweets(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return tweetService.getPostedTweets(from, to);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Tweet> getTweet(@PathVariable Long id, WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return tweetService.getTweetById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllTweets(WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return ndjson(false);
+    }
+
+    @GetMapping("/unposted/stream")
+    public ResponseEntity<StreamingResponseBody> streamUnpostedTweets(WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return ndjson(true);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler({DuplicateTweetException.class, DataIntegrityViolationException.class})
+    public ResponseEntity<Map<String, String>> handleDuplicate(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "A tweet with the same text already exists"));
     }
 
     @GetMapping("/stats")
-    public Map<String, Object> getStats() {
-        long total = tweetService.getAllTweets().size();
-        long unposted = tweetService.getUnpostedTweetCount();
+    public Map<String, Object> getStats(WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        TweetStats stats = tweetStatsService.getStats();
 
         return Map.of(
-                "total", total,
-                "posted", total - unposted,
-                "unposted", unposted,
-                "scheduled", tweetService.getScheduledTweets().size()
+                "total", stats.total(),
+                "posted", stats.posted(),
+                "unposted", stats.unposted(),
+                "scheduled", stats.scheduled()
         );
     }
 
+    // Today's remaining quota and the times the planner will post at
+    @GetMapping("/plan")
+    public PostingPlan getPlan() {
+        return postingPlanner.getPlan();
+    }
+
+    // Live created/updated/posted/failed/deleted and import events, instead of polling the list endpoints
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents() {
+        return tweetEventStream.subscribe()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
     @PostMapping
     public Tweet createTweet(@Valid @RequestBody Tweet tweet) {
         return tweetService.saveTweet(tweet);
@@ -53,12 +183,13 @@ public class TweetController {
     @PostMapping("/import-csv")
     public ResponseEntity<Map<String, Object>> importCsv(@RequestParam("file") MultipartFile file) {
         try {
-            List<Tweet> importedTweets = csvImportService.importTweetsFromCsv(file);
+            ImportJob job = csvImportService.submitImport(file);
 
-            return ResponseEntity.ok(Map.of(
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
                     "success", true,
-                    "message", "Successfully imported " + importedTweets.size() + " tweets",
-                    "imported", importedTweets.size()
+                    "message", "Import queued",
+                    "jobId", job.getId(),
+                    "statusUrl", "/api/tweets/import-jobs/" + job.getId()
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -68,6 +199,13 @@ public class TweetController {
         }
     }
 
+    @GetMapping("/import-jobs/{id}")
+    public ResponseEntity<ImportJobStatus> getImportJob(@PathVariable String id) {
+        return csvImportService.getJob(id)
+                .map(job -> ResponseEntity.ok(job.status()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/{id}/post")
     public ResponseEntity<Map<String, Object>> postTweet(@PathVariable Long id) {
         try {
@@ -81,6 +219,13 @@ public class TweetController {
                     "message", "Tweet posted successfully",
                     "twitterId", postedTweet.getTwitterId()
             ));
+        } catch (RateLimitedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(Math.max(e.getRetryAfter().toSeconds(), 1)))
+                    .body(Map.of(
+                            "success", false,
+                            "message", "Rate limited by Twitter, tweet queued for retry"
+                    ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -89,6 +234,12 @@ public class TweetController {
         }
     }
 
+    // Async: the servlet thread is released while the batch runs
+    @PostMapping("/post-batch")
+    public CompletableFuture<PostBatchResult> postBatch(@RequestBody PostBatchRequest request) {
+        return batchPostingService.postBatch(request);
+    }
+
 //    @PostMapping("/post-next")
 //    public ResponseEntity<Map<String, Object>> postNextTweet() {
 //        return tweetService.postNextTweet()
@@ -104,6 +255,22 @@ public class TweetController {
 //                )));
 //    }
 
+    // Tweets that failed permanently or ran out of retries
+    @GetMapping("/dead-letter")
+    public List<Tweet> getDeadLetters(WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return tweetService.getDeadLetters();
+    }
+
+    @PostMapping("/{id}/requeue")
+    public ResponseEntity<Tweet> requeueTweet(@PathVariable Long id) {
+        return tweetService.requeueTweet(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, String>> deleteTweet(@PathVariable Long id) {
         try {
@@ -113,4 +280,32 @@ public class TweetController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    // If-None-Match against the table-wide version, and sets the ETag. On a match the handler
+    // returns null and Spring answers 304 without touching the database or serializing anything.
+    // Weak, because Tomcat will not gzip a response carrying a strong ETag.
+    private boolean notModified(WebRequest request) {
+        return request.checkNotModified("W/\"" + tweetService.getVersionTag() + "\"");
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(boolean unpostedOnly) {
+        StreamingResponseBody body = out -> tweetService.streamTweets(unpostedOnly, tweet -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(tweet));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
@@ -0,0 +1,13 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+// Tokens from the OAuth2 authorization-code flow of the account being added
+public record AccountRequest(
+        @NotBlank @Size(max = 100) String name,
+        @NotBlank @Size(max = 500) String accessToken,
+        @NotBlank @Size(max = 500) String refreshToken,
+        Long expiresIn
+) {
+}
@@ -0,0 +1,17 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import java.time.Instant;
+
+public record DatabaseHealth(String status, String database, String url, double acquireMillis, double latencyMillis,
+                             Instant checkedAt, String error) {
+
+    public static final DatabaseHealth UNKNOWN = new DatabaseHealth("UNKNOWN", null, null, 0, 0, null, null);
+
+    public static DatabaseHealth up(String database, String url, double acquireMillis, double latencyMillis) {
+        return new DatabaseHealth("UP", database, url, acquireMillis, latencyMillis, Instant.now(), null);
+    }
+
+    public static DatabaseHealth down(String error) {
+        return new DatabaseHealth("DOWN", null, null, 0, 0, Instant.now(), error);
+    }
+}
@@ -0,0 +1,21 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import java.time.Instant;
+
+public record ImportJobStatus(
+        String id,
+        String state,
+        String fileName,
+        long rowsRead,
+        long accepted,
+        long rejected,
+        long duplicates,
+        long bytesRead,
+        long totalBytes,
+        double rowsPerSecond,
+        Long etaSeconds,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {
+}
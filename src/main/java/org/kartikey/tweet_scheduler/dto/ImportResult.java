@@ -0,0 +1,4 @@
+package org.kartikey.tweet_scheduler.dto;
+
+public record ImportResult(long accepted, long rejected, long duplicates, long durationMillis) {
+}
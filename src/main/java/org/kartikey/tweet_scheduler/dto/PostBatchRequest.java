@@ -0,0 +1,7 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import java.util.List;
+
+// Either explicit tweet ids or "next N" in posting order, not both
+public record PostBatchRequest(List<Long> ids, Integer next) {
+}
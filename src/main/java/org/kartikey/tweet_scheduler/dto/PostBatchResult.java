@@ -0,0 +1,22 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import java.util.List;
+
+// skipped and notFound were never attempted, so they are kept apart from failed
+public record PostBatchResult(int requested, long posted, long rateLimited, long failed, long skipped, long notFound,
+                              long durationMillis, List<PostOutcome> results) {
+
+    public static PostBatchResult of(int requested, long durationMillis, List<PostOutcome> results) {
+        return new PostBatchResult(requested,
+                count(results, PostOutcome.Status.POSTED),
+                count(results, PostOutcome.Status.RATE_LIMITED),
+                count(results, PostOutcome.Status.FAILED),
+                count(results, PostOutcome.Status.SKIPPED),
+                count(results, PostOutcome.Status.NOT_FOUND),
+                durationMillis, results);
+    }
+
+    private static long count(List<PostOutcome> results, PostOutcome.Status status) {
+        return results.stream().filter(result -> result.status() == status).count();
+    }
+}
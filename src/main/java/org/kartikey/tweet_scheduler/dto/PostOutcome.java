@@ -0,0 +1,22 @@
+package org.kartikey.tweet_scheduler.dto;
+
+public record PostOutcome(Long tweetId, Status status, String twitterId, String error) {
+
+    public enum Status {
+        POSTED,
+        // Throttled; the tweet is queued for a retry
+        RATE_LIMITED,
+        // Already posted, leased by another poster, waiting for a retry or dead-lettered
+        SKIPPED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    public static PostOutcome posted(Long tweetId, String twitterId) {
+        return new PostOutcome(tweetId, Status.POSTED, twitterId, null);
+    }
+
+    public static PostOutcome of(Long tweetId, Status status, String error) {
+        return new PostOutcome(tweetId, status, null, error);
+    }
+}
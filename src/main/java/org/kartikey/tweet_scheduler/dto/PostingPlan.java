@@ -0,0 +1,19 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record PostingPlan(
+        String zone,
+        int dailyCap,
+        int monthlyCap,
+        long postedToday,
+        long postedThisMonth,
+        long remainingToday,
+        long remainingThisMonth,
+        long backlog,
+        int plannedToday,
+        List<Instant> slots,
+        Instant plannedAt
+) {
+}
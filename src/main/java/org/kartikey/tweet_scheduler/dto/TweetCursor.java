@@ -0,0 +1,28 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset position over (priority DESC, createdAt ASC, id ASC)
+public record TweetCursor(int priority, LocalDateTime createdAt, long id) {
+
+    public static TweetCursor of(TweetSummary tweet) {
+        return new TweetCursor(tweet.priority(), tweet.createdAt(), tweet.id());
+    }
+
+    public String encode() {
+        String raw = priority + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TweetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return new TweetCursor(Integer.parseInt(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
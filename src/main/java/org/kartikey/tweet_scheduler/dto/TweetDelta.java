@@ -0,0 +1,29 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+
+import java.time.LocalDateTime;
+
+// What changed on a tweet, for the event stream; the text is left out, clients fetch it if they need it
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TweetDelta(
+        long id,
+        TweetStatus status,
+        Long accountId,
+        Integer priority,
+        LocalDateTime scheduledFor,
+        LocalDateTime postedAt,
+        String twitterId,
+        int attempts,
+        LocalDateTime nextAttemptAt,
+        String lastError
+) {
+
+    public static TweetDelta of(Tweet tweet) {
+        return new TweetDelta(tweet.getId(), tweet.getStatus(), tweet.getAccountId(), tweet.getPriority(),
+                tweet.getScheduledFor(), tweet.getPostedAt(), tweet.getTwitterId(), tweet.getAttempts(),
+                tweet.getNextAttemptAt(), tweet.getLastError());
+    }
+}
@@ -0,0 +1,6 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import java.util.List;
+
+public record TweetPage(List<TweetSummary> items, String nextCursor) {
+}
@@ -0,0 +1,17 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import org.kartikey.tweet_scheduler.model.Tweet;
+
+import java.time.LocalDateTime;
+
+// Just the columns needed to order unposted tweets
+public record TweetQueueEntry(long id, int priority, LocalDateTime createdAt, LocalDateTime scheduledFor) {
+
+    public static TweetQueueEntry of(Tweet tweet) {
+        return new TweetQueueEntry(tweet.getId(), tweet.getPriority(), tweet.getCreatedAt(), tweet.getScheduledFor());
+    }
+
+    public boolean isDueAt(LocalDateTime now) {
+        return scheduledFor == null || !scheduledFor.isAfter(now);
+    }
+}
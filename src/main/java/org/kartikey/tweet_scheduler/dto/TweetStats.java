@@ -0,0 +1,15 @@
+package org.kartikey.tweet_scheduler.dto;
+
+public record TweetStats(long total, long posted, long unposted, long scheduled) {
+
+    public static final TweetStats EMPTY = new TweetStats(0, 0, 0, 0);
+
+    public TweetStats plus(long total, long posted, long unposted, long scheduled) {
+        return new TweetStats(this.total + total, this.posted + posted,
+                this.unposted + unposted, this.scheduled + scheduled);
+    }
+
+    public TweetStats plus(TweetStats delta) {
+        return plus(delta.total, delta.posted, delta.unposted, delta.scheduled);
+    }
+}
@@ -0,0 +1,26 @@
+package org.kartikey.tweet_scheduler.dto;
+
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+
+import java.time.LocalDateTime;
+
+// List view of a tweet, selected straight into the record (no entity hydration, no dirty checking).
+// Lease, retry and hash columns are left out; GET /api/tweets/{id} has the full row.
+public record TweetSummary(
+        Long id,
+        String text,
+        Integer priority,
+        TweetStatus status,
+        Long accountId,
+        LocalDateTime scheduledFor,
+        LocalDateTime postedAt,
+        LocalDateTime createdAt
+) {
+
+    public TweetSummary {
+        // Same default as Tweet.getStatus for rows written before the column existed
+        if (status == null) {
+            status = TweetStatus.PENDING;
+        }
+    }
+}
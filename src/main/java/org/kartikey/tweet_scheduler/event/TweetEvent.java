@@ -0,0 +1,43 @@
+package org.kartikey.tweet_scheduler.event;
+
+import org.kartikey.tweet_scheduler.model.Tweet;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+// Published by TweetService for every write; listeners keep in-memory views in sync.
+// UPDATED events also carry what the row looked like before (null entry if unknown), so counters can apply a delta.
+public record TweetEvent(Type type, List<Tweet> tweets, List<Before> before) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        POSTED,
+        DELETED
+    }
+
+    // The parts of the previous row the counters depend on
+    public record Before(boolean posted, LocalDateTime scheduledFor) {
+
+        public static Before of(Tweet tweet) {
+            return new Before(tweet.isPosted(), tweet.getScheduledFor());
+        }
+    }
+
+    public TweetEvent(Type type, List<Tweet> tweets) {
+        this(type, tweets, List.of());
+    }
+
+    public static TweetEvent of(Type type, Tweet tweet) {
+        return new TweetEvent(type, List.of(tweet));
+    }
+
+    public static TweetEvent updated(Tweet tweet, Before before) {
+        return new TweetEvent(Type.UPDATED, List.of(tweet), Collections.singletonList(before));
+    }
+
+    public Before before(int index) {
+        return index < before.size() ? before.get(index) : null;
+    }
+}
@@ -0,0 +1,47 @@
+package org.kartikey.tweet_scheduler.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// SHA-256 of the tweet text after normalization (NFKC, case folded, whitespace collapsed),
+// so texts Twitter would treat as the same status hash the same.
+public final class ContentHash {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final MessageDigest SHA_256;
+
+    static {
+        try {
+            SHA_256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private ContentHash() {
+    }
+
+    public static String of(String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFKC).strip())
+                .replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+        return HexFormat.of().formatHex(digest().digest(normalized.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Cloning a prototype is much cheaper than a provider lookup per row
+    private static MessageDigest digest() {
+        try {
+            return (MessageDigest) SHA_256.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
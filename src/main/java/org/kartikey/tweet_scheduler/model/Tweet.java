@@ -1,16 +1,18 @@
 package org.kartikey.tweet_scheduler.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tweets")
+@Table(name = "tweets", indexes = @Index(name = "uk_tweets_content_hash", columnList = "content_hash", unique = true))
 public class Tweet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tweets_seq")
+    @SequenceGenerator(name = "tweets_seq", sequenceName = "tweets_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 280)
@@ -33,32 +35,101 @@ public class Tweet {
     @Column(name = "twitter_id")
     private String twitterId; // Twitter's tweet ID after posting
 
-    @Column(name = "priority")
+    @Column(name = "priority", nullable = false)
     private Integer priority = 0; // Higher priority tweets post first
 
+    // Nullable in the schema so the column can be added to existing tables; null reads as PENDING
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private TweetStatus status = TweetStatus.PENDING;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Failed posts so far, and when the retry worker may try again (null unless FAILED)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Set while an instance is posting this tweet; an expired lease can be claimed by anyone
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    // Normalized text hash for duplicate detection; null only on legacy duplicates left unhashed
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Twitter account (twitter_tokens row) to post from; null posts from the default account
+    @Column(name = "account_id")
+    private Long accountId;
+
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (status == null) {
+            status = posted ? TweetStatus.POSTED : TweetStatus.PENDING;
+        }
+        if (priority == null) {
+            priority = 0; // keyset pagination relies on a non-null priority
+        }
+        if (contentHash == null) {
+            contentHash = ContentHash.of(text);
+        }
     }
 
     // Constructors
     public Tweet() {}
 
     public Tweet(String text) {
-        this.text = text;
+        setText(text);
     }
 
     public Tweet(String text, Integer priority) {
-        this.text = text;
+        setText(text);
         this.priority = priority;
     }
 
+    // Detached field-by-field copy, for handing out cached state that callers may then change
+    public Tweet copy() {
+        Tweet copy = new Tweet();
+        copy.id = id;
+        copy.text = text;
+        copy.posted = posted;
+        copy.postedAt = postedAt;
+        copy.createdAt = createdAt;
+        copy.scheduledFor = scheduledFor;
+        copy.twitterId = twitterId;
+        copy.priority = priority;
+        copy.status = status;
+        copy.lastError = lastError;
+        copy.attempts = attempts;
+        copy.nextAttemptAt = nextAttemptAt;
+        copy.leaseOwner = leaseOwner;
+        copy.leaseExpiresAt = leaseExpiresAt;
+        copy.contentHash = contentHash;
+        copy.accountId = accountId;
+        return copy;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
     public String getText() { return text; }
-    public void setText(String text) { this.text = text; }
+    public void setText(String text) {
+        this.text = text;
+        this.contentHash = ContentHash.of(text);
+    }
 
     public boolean isPosted() { return posted; }
     public void setPosted(boolean posted) { this.posted = posted; }
@@ -78,6 +149,30 @@ public class Tweet {
     public Integer getPriority() { return priority; }
     public void setPriority(Integer priority) { this.priority = priority; }
 
+    public TweetStatus getStatus() { return status == null ? TweetStatus.PENDING : status; }
+    public void setStatus(TweetStatus status) { this.status = status; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
     @Override
     public String toString() {
         return "Tweet{id=" + id + ", text='" + text + "', posted=" + posted + "}";
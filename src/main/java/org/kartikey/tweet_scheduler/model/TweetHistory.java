@@ -0,0 +1,82 @@
+package org.kartikey.tweet_scheduler.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Posted tweets moved out of the hot tweets table by TweetArchiver. On Postgres the table is
+// range-partitioned by posted_at (see the V1 migration), so the primary key there is
+// (id, posted_at); ids stay unique because they come from tweets_seq.
+@Entity
+@Table(name = "tweet_history", indexes = {
+        @Index(name = "idx_tweet_history_posted_at", columnList = "posted_at"),
+        @Index(name = "idx_tweet_history_content_hash", columnList = "content_hash")
+})
+public class TweetHistory {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 280)
+    private String text;
+
+    @Column(name = "priority")
+    private Integer priority;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "scheduled_for")
+    private LocalDateTime scheduledFor;
+
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+
+    @Column(name = "twitter_id")
+    private String twitterId;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    protected TweetHistory() {}
+
+    // Unarchived posted tweets are reported in the same shape as archived ones
+    public static TweetHistory of(Tweet tweet) {
+        TweetHistory history = new TweetHistory();
+        history.id = tweet.getId();
+        history.text = tweet.getText();
+        history.priority = tweet.getPriority();
+        history.createdAt = tweet.getCreatedAt();
+        history.scheduledFor = tweet.getScheduledFor();
+        history.postedAt = tweet.getPostedAt();
+        history.twitterId = tweet.getTwitterId();
+        history.contentHash = tweet.getContentHash();
+        history.accountId = tweet.getAccountId();
+        return history;
+    }
+
+    public Long getId() { return id; }
+
+    public String getText() { return text; }
+
+    public Integer getPriority() { return priority; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getScheduledFor() { return scheduledFor; }
+
+    public LocalDateTime getPostedAt() { return postedAt; }
+
+    public String getTwitterId() { return twitterId; }
+
+    public String getContentHash() { return contentHash; }
+
+    public Long getAccountId() { return accountId; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
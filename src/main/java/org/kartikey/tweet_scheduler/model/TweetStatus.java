@@ -0,0 +1,11 @@
+package org.kartikey.tweet_scheduler.model;
+
+// PENDING -> IN_FLIGHT (claimed) -> POSTED or FAILED; FAILED tweets are claimed again once their
+// next_attempt_at passes, DEAD ones (permanent failure or out of attempts) only after a requeue
+public enum TweetStatus {
+    PENDING,
+    IN_FLIGHT,
+    POSTED,
+    FAILED,
+    DEAD
+}
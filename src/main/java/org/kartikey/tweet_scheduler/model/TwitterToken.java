@@ -10,6 +10,10 @@ public class TwitterToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Label the account is addressed by in the API
+    @Column(name = "name", nullable = false, unique = true, length = 100)
+    private String name;
+
     @Column(name = "access_token", nullable = false, length = 500)
     private String accessToken;
 
@@ -32,6 +36,14 @@ public class TwitterToken {
         this.id = id;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
     public String getAccessToken() {
         return accessToken;
     }
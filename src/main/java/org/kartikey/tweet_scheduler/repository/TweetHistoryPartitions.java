@@ -0,0 +1,63 @@
+package org.kartikey.tweet_scheduler.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Monthly range partitions of tweet_history on Postgres, created just before rows for that
+// month are archived. There is deliberately no default partition: rows landing there would
+// block creating the matching monthly partition later.
+@Component
+public class TweetHistoryPartitions {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetHistoryPartitions.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private boolean partitioned;
+
+    private final Set<YearMonth> known = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        partitioned = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    // Must run in the archiving transaction, ahead of the insert
+    public void ensure(Collection<YearMonth> months) {
+        if (!partitioned) {
+            return;
+        }
+        for (YearMonth month : months) {
+            if (known.contains(month)) {
+                continue;
+            }
+            String name = String.format("tweet_history_y%04dm%02d", month.getYear(), month.getMonthValue());
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF tweet_history " +
+                    "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            known.add(month);
+            log.debug("Ensured history partition {}", name);
+        }
+    }
+
+    // DDL rolls back with a failed transaction, so forget what this one created
+    public void reset() {
+        known.clear();
+    }
+}
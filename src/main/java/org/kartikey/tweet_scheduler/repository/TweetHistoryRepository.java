@@ -0,0 +1,37 @@
+package org.kartikey.tweet_scheduler.repository;
+
+import jakarta.persistence.QueryHint;
+import org.kartikey.tweet_scheduler.model.TweetHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface TweetHistoryRepository extends JpaRepository<TweetHistory, Long> {
+
+    // Range on the partition key, so Postgres only scans the partitions covering [start, end]
+    List<TweetHistory> findByPostedAtBetweenOrderByPostedAtAsc(LocalDateTime start, LocalDateTime end);
+
+    long countByPostedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    boolean existsByContentHash(String contentHash);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT h.contentHash FROM TweetHistory h WHERE h.contentHash IS NOT NULL")
+    Stream<String> streamContentHashes();
+
+    // Copies posted rows server-side; the caller deletes them from tweets in the same transaction
+    @Modifying
+    @Query("INSERT INTO TweetHistory (id, text, priority, createdAt, scheduledFor, postedAt, twitterId, contentHash, accountId, archivedAt) " +
+            "SELECT t.id, t.text, t.priority, t.createdAt, t.scheduledFor, t.postedAt, t.twitterId, t.contentHash, t.accountId, :archivedAt " +
+            "FROM Tweet t WHERE t.id IN :ids")
+    int copyFromTweets(List<Long> ids, LocalDateTime archivedAt);
+}
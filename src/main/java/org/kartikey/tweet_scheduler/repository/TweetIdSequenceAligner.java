@@ -0,0 +1,45 @@
+package org.kartikey.tweet_scheduler.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Tweet ids used to come from an identity column; make sure the pooled sequence
+// that replaced it never hands out ids that already exist.
+@Component
+public class TweetIdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetIdSequenceAligner.class);
+
+    static final String SEQUENCE_NAME = "tweets_seq";
+    static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void align() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM tweets", Long.class);
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE_NAME), Long.class);
+
+        // The pooled optimizer hands out (value - allocationSize, value], so the whole block must clear maxId
+        if (maxId != null && maxId > 0 && next != null && next - ALLOCATION_SIZE <= maxId) {
+            long restartAt = maxId + 2L * ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE_NAME + " RESTART WITH " + restartAt);
+            log.info("Moved {} past existing tweet ids (max id {}, restarted at {})", SEQUENCE_NAME, maxId, restartAt);
+        }
+    }
+}
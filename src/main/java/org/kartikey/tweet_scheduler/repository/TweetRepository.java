@@ -1,35 +1,64 @@
 package org.kartikey.tweet_scheduler.repository;
 
 
+import org.kartikey.tweet_scheduler.dto.TweetQueueEntry;
+import org.kartikey.tweet_scheduler.dto.TweetStats;
+import org.kartikey.tweet_scheduler.dto.TweetSummary;
 import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TweetRepository extends JpaRepository<Tweet, Long> {
 
+    // List views select into TweetSummary instead of loading entities
+    String SUMMARY = "SELECT new org.kartikey.tweet_scheduler.dto.TweetSummary(t.id, t.text, t.priority, t.status, " +
+            "t.accountId, t.scheduledFor, t.postedAt, t.createdAt) FROM Tweet t ";
+
+    // Tweets the ready-queue index holds: unposted, not waiting for a retry and not dead-lettered
+    String QUEUED = "t.posted = false AND t.nextAttemptAt IS NULL " +
+            "AND (t.status IS NULL OR t.status <> org.kartikey.tweet_scheduler.model.TweetStatus.DEAD) ";
+
     // Find the next tweet to post (not posted, highest priority, oldest first)
     @Query("SELECT t FROM Tweet t WHERE t.posted = false AND " +
             "(t.scheduledFor IS NULL OR t.scheduledFor <= :now) " +
-            "ORDER BY t.priority DESC, t.createdAt ASC")
-    Optional<Tweet> findNextTweetToPost(LocalDateTime now);
-
-    Optional<Tweet> findFirstByPostedFalseAndScheduledForIsNullOrScheduledForLessThanEqualOrderByPriorityDescCreatedAtAsc(LocalDateTime now);
+            "ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    Optional<Tweet> findNextTweetToPost(LocalDateTime now, Limit limit);
 
     // Find all unposted tweets
     List<Tweet> findByPostedFalseOrderByPriorityDescCreatedAtAsc();
 
-    // Find tweets posted in a time range
+    // Posted tweets not archived yet; older ones are in TweetHistoryRepository
     List<Tweet> findByPostedTrueAndPostedAtBetween(LocalDateTime start, LocalDateTime end);
 
+    long countByPostedTrueAndPostedAtBetween(LocalDateTime start, LocalDateTime end);
+
     // Count unposted tweets
     long countByPostedFalse();
 
+    // Totals for /api/tweets/stats in a single pass
+    @Query("SELECT new org.kartikey.tweet_scheduler.dto.TweetStats(COUNT(t), " +
+            "COALESCE(SUM(CASE WHEN t.posted = true THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN t.posted = false THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN t.posted = false AND t.scheduledFor > :now THEN 1L ELSE 0L END), 0L)) " +
+            "FROM Tweet t")
+    TweetStats aggregateStats(LocalDateTime now);
+
     // Find tweets by priority
     List<Tweet> findByPriorityOrderByCreatedAtAsc(Integer priority);
 
@@ -37,4 +66,149 @@ public interface TweetRepository extends JpaRepository<Tweet, Long> {
     @Query("SELECT t FROM Tweet t WHERE t.posted = false AND t.scheduledFor > :now " +
             "ORDER BY t.scheduledFor ASC")
     List<Tweet> findScheduledTweets(LocalDateTime now);
-}
\ No newline at end of file
+
+    @Query(SUMMARY + "WHERE t.posted = false AND t.scheduledFor > :now ORDER BY t.scheduledFor ASC")
+    List<TweetSummary> findScheduledSummaries(LocalDateTime now);
+
+    @Query(SUMMARY + "WHERE t.posted = false ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    List<TweetSummary> findUnpostedSummaries();
+
+    // Keyset pagination over (priority DESC, createdAt ASC, id ASC)
+    @Query(SUMMARY + "ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    List<TweetSummary> findFirstPage(Limit limit);
+
+    @Query(SUMMARY + "WHERE t.priority < :priority OR " +
+            "(t.priority = :priority AND (t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id))) " +
+            "ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    List<TweetSummary> findPageAfter(Integer priority, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(SUMMARY + "WHERE t.posted = false ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    List<TweetSummary> findFirstUnpostedPage(Limit limit);
+
+    @Query(SUMMARY + "WHERE t.posted = false AND (t.priority < :priority OR " +
+            "(t.priority = :priority AND (t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id)))) " +
+            "ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    List<TweetSummary> findUnpostedPageAfter(Integer priority, LocalDateTime createdAt, Long id, Limit limit);
+
+    // Streaming reads for NDJSON export; must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t FROM Tweet t ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    Stream<Tweet> streamAll();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t FROM Tweet t WHERE t.posted = false ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    Stream<Tweet> streamUnposted();
+
+    // Content-hash duplicate detection
+    boolean existsByContentHash(String contentHash);
+
+    boolean existsByContentHashAndIdNot(String contentHash, Long id);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.contentHash FROM Tweet t WHERE t.contentHash IS NOT NULL")
+    Stream<String> streamContentHashes();
+
+    List<Tweet> findByContentHashIsNullAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Tweet t SET t.contentHash = :contentHash WHERE t.id = :id")
+    int setContentHash(Long id, String contentHash);
+
+    // Loads the ready-queue index without hydrating entities
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new org.kartikey.tweet_scheduler.dto.TweetQueueEntry(t.id, t.priority, t.createdAt, t.scheduledFor) " +
+            "FROM Tweet t WHERE " + QUEUED)
+    Stream<TweetQueueEntry> streamUnpostedQueueEntries();
+
+    // Head and size of the same set, for ReadyQueueIndex.verify
+    @Query("SELECT new org.kartikey.tweet_scheduler.dto.TweetQueueEntry(t.id, t.priority, t.createdAt, t.scheduledFor) " +
+            "FROM Tweet t WHERE " + QUEUED + "AND (t.scheduledFor IS NULL OR t.scheduledFor <= :now) " +
+            "ORDER BY t.priority DESC, t.createdAt ASC, t.id ASC")
+    Optional<TweetQueueEntry> findNextQueueEntry(LocalDateTime now, Limit limit);
+
+    @Query("SELECT COUNT(t) FROM Tweet t WHERE " + QUEUED)
+    long countQueueEntries();
+
+    // Lease claiming so several instances never post the same tweet.
+    // Claims a specific tweet if nobody holds a live lease on it and it is not waiting for a retry.
+    @Modifying
+    @Query("UPDATE Tweet t SET t.status = org.kartikey.tweet_scheduler.model.TweetStatus.IN_FLIGHT, " +
+            "t.leaseOwner = :owner, t.leaseExpiresAt = :expiresAt " +
+            "WHERE t.id = :id AND t.posted = false AND (t.leaseExpiresAt IS NULL OR t.leaseExpiresAt < :now) " +
+            "AND (t.nextAttemptAt IS NULL OR t.nextAttemptAt <= :now) " +
+            "AND (t.status IS NULL OR t.status <> org.kartikey.tweet_scheduler.model.TweetStatus.DEAD)")
+    int claim(Long id, String owner, LocalDateTime now, LocalDateTime expiresAt);
+
+    // Locks the next claimable due tweets, skipping rows locked by other instances.
+    // Same syntax on Postgres and H2 2.x.
+    @Query(value = "SELECT id FROM tweets WHERE is_posted = false " +
+            "AND (scheduled_for IS NULL OR scheduled_for <= :now) " +
+            "AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) AND (status IS NULL OR status <> 'DEAD') " +
+            "ORDER BY priority DESC, created_at ASC, id ASC LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockClaimableIds(LocalDateTime now, int limit);
+
+    // Same, leaving out tweets of the given accounts (throttled ones); a NULL account is defaultAccount
+    @Query(value = "SELECT id FROM tweets WHERE is_posted = false " +
+            "AND (scheduled_for IS NULL OR scheduled_for <= :now) " +
+            "AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) AND (status IS NULL OR status <> 'DEAD') " +
+            "AND COALESCE(account_id, :defaultAccount) NOT IN (:excludedAccounts) " +
+            "ORDER BY priority DESC, created_at ASC, id ASC LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockClaimableIdsExcluding(LocalDateTime now, int limit, long defaultAccount,
+                                         Collection<Long> excludedAccounts);
+
+    // Failed tweets whose backoff has elapsed, oldest due first
+    @Query(value = "SELECT id FROM tweets WHERE status = 'FAILED' AND next_attempt_at <= :now " +
+            "AND is_posted = false AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+            "ORDER BY next_attempt_at ASC, id ASC LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockDueRetryIds(LocalDateTime now, int limit);
+
+    // Same, leaving out tweets of the given accounts, like lockClaimableIdsExcluding
+    @Query(value = "SELECT id FROM tweets WHERE status = 'FAILED' AND next_attempt_at <= :now " +
+            "AND is_posted = false AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+            "AND COALESCE(account_id, :defaultAccount) NOT IN (:excludedAccounts) " +
+            "ORDER BY next_attempt_at ASC, id ASC LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockDueRetryIdsExcluding(LocalDateTime now, int limit, long defaultAccount,
+                                        Collection<Long> excludedAccounts);
+
+    @Modifying
+    @Query("UPDATE Tweet t SET t.status = org.kartikey.tweet_scheduler.model.TweetStatus.IN_FLIGHT, " +
+            "t.leaseOwner = :owner, t.leaseExpiresAt = :expiresAt WHERE t.id IN :ids")
+    int claimAll(List<Long> ids, String owner, LocalDateTime expiresAt);
+
+    // Recorded even if the lease lapsed meanwhile: the tweet is live on Twitter either way
+    @Modifying
+    @Query("UPDATE Tweet t SET t.status = org.kartikey.tweet_scheduler.model.TweetStatus.POSTED, " +
+            "t.posted = true, t.postedAt = :postedAt, t.twitterId = :twitterId, t.lastError = NULL, t.nextAttemptAt = NULL, " +
+            "t.leaseOwner = NULL, t.leaseExpiresAt = NULL WHERE t.id = :id")
+    int markPosted(Long id, String twitterId, LocalDateTime postedAt);
+
+    // Archiving: posted rows older than the cutoff, skipping rows another instance is moving
+    @Query(value = "SELECT id FROM tweets WHERE is_posted = true AND posted_at < :cutoff " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockArchivableIds(LocalDateTime cutoff, int limit);
+
+    @Query("SELECT DISTINCT YEAR(t.postedAt), MONTH(t.postedAt) FROM Tweet t WHERE t.id IN :ids")
+    List<Object[]> findPostedMonths(List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Tweet t WHERE t.id IN :ids")
+    int deleteAllByIdIn(List<Long> ids);
+
+    // FAILED with the next attempt time, or DEAD (nextAttemptAt null)
+    @Modifying
+    @Query("UPDATE Tweet t SET t.status = :status, t.lastError = :error, t.attempts = :attempts, " +
+            "t.nextAttemptAt = :nextAttemptAt, t.leaseOwner = NULL, t.leaseExpiresAt = NULL " +
+            "WHERE t.id = :id AND t.leaseOwner = :owner")
+    int markFailed(Long id, String owner, String error, TweetStatus status, int attempts, LocalDateTime nextAttemptAt);
+
+    List<Tweet> findByStatusOrderByIdAsc(TweetStatus status);
+
+    long countByStatus(TweetStatus status);
+}
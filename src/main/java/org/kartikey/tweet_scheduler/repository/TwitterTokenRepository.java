@@ -6,4 +6,6 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TwitterTokenRepository extends JpaRepository<TwitterToken, Long> {
+
+    boolean existsByName(String name);
 }
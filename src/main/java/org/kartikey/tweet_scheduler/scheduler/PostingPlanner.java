@@ -0,0 +1,248 @@
+package org.kartikey.tweet_scheduler.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kartikey.tweet_scheduler.dto.PostingPlan;
+import org.kartikey.tweet_scheduler.dto.TweetStats;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.service.TweetService;
+import org.kartikey.tweet_scheduler.service.TweetStatsService;
+import org.kartikey.tweet_scheduler.service.TwitterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+// Paces posting against the account's daily and monthly caps. The month's remaining budget is
+// spread over its remaining days, and today's share is laid out as evenly spaced (optionally
+// jittered) slots until midnight in the quota zone. Writes trigger a debounced re-plan that keeps
+// the existing slots when today's budget is unchanged. Posts made outside the slots (timed tweets)
+// reserve budget first, so a burst of them cannot run past the caps.
+@Service
+public class PostingPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(PostingPlanner.class);
+
+    @Autowired
+    private TweetService tweetService;
+
+    @Autowired
+    private TweetStatsService tweetStatsService;
+
+    @Autowired
+    private TwitterService twitterService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tweets.quota.daily-cap:17}")
+    private int dailyCap;
+
+    @Value("${tweets.quota.monthly-cap:500}")
+    private int monthlyCap;
+
+    @Value("${tweets.quota.zone:Asia/Kolkata}")
+    private ZoneId zone;
+
+    // Fraction of the slot spacing each slot may move by; 0 gives an exact grid
+    @Value("${tweets.quota.jitter:0.2}")
+    private double jitter;
+
+    @Value("${tweets.quota.replan-delay-ms:1000}")
+    private long replanDelayMs;
+
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("posting-planner-"));
+
+    private volatile PostingPlan plan;
+
+    // Reserved posts the current plan has not counted yet, guarded by budgetLock rather than this,
+    // so the timing wheel never waits on a re-plan's queries
+    private final Object budgetLock = new Object();
+    private int inFlight;
+    private int postedSincePlan;
+    private ScheduledFuture<?> next;
+    private ScheduledFuture<?> pendingReplan;
+
+    @PostConstruct
+    public void init() {
+        replan();
+
+        Gauge.builder("tweets.quota.remaining", this, planner -> planner.plan.remainingToday())
+                .tag("period", "day")
+                .description("Posts left in today's cap")
+                .register(meterRegistry);
+        Gauge.builder("tweets.quota.remaining", this, planner -> planner.plan.remainingThisMonth())
+                .tag("period", "month")
+                .description("Posts left in this month's cap")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public PostingPlan getPlan() {
+        return plan;
+    }
+
+    // Takes one post from what is left of today's and this month's caps; false when nothing is left.
+    // Every successful reserve must be followed by release.
+    public boolean tryReserve() {
+        PostingPlan current = plan;
+        synchronized (budgetLock) {
+            long left = current == null ? 0
+                    : Math.min(current.remainingToday(), current.remainingThisMonth()) - inFlight - postedSincePlan;
+            if (left <= 0) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+    }
+
+    public void release(boolean posted) {
+        synchronized (budgetLock) {
+            inFlight--;
+            if (posted) {
+                postedSincePlan++;
+            }
+        }
+    }
+
+    // New tweets, deletions and posts (including ones made outside the plan) change backlog or budget
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetEvent(TweetEvent event) {
+        requestReplan();
+    }
+
+    synchronized void requestReplan() {
+        if (pendingReplan == null || pendingReplan.isDone()) {
+            pendingReplan = executor.schedule(this::replan, replanDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void replan() {
+        Instant now = Instant.now();
+        ZonedDateTime local = now.atZone(zone);
+        ZonedDateTime dayStart = local.truncatedTo(ChronoUnit.DAYS);
+        ZonedDateTime dayEnd = dayStart.plusDays(1);
+        ZonedDateTime monthStart = dayStart.withDayOfMonth(1);
+        int daysLeft = local.toLocalDate().lengthOfMonth() - local.getDayOfMonth() + 1;
+
+        // Posts finished by now are in the counts below; later ones stay reserved (counted twice at worst)
+        int counted;
+        synchronized (budgetLock) {
+            counted = postedSincePlan;
+        }
+        long postedToday = tweetService.countPostedBetween(toDb(dayStart), toDb(local));
+        long postedThisMonth = tweetService.countPostedBetween(toDb(monthStart), toDb(local));
+        TweetStats stats = tweetStatsService.getStats();
+        long backlog = Math.max(0, stats.unposted() - stats.scheduled());
+
+        int budget = budgetForToday(dailyCap, monthlyCap, postedToday, postedThisMonth, daysLeft, backlog);
+
+        // Incremental: keep the slots still ahead if they already match today's budget
+        List<Instant> previous = plan == null ? List.of() : plan.slots().stream().filter(now::isBefore).toList();
+        List<Instant> slots = previous.size() == budget && previous.stream().allMatch(dayEnd.toInstant()::isAfter)
+                ? previous
+                : slots(now, dayEnd.toInstant(), budget, jitter, ThreadLocalRandom.current());
+
+        plan = new PostingPlan(zone.getId(), dailyCap, monthlyCap, postedToday, postedThisMonth,
+                Math.max(0, dailyCap - postedToday), Math.max(0, monthlyCap - postedThisMonth), backlog,
+                budget, slots, now);
+        synchronized (budgetLock) {
+            postedSincePlan -= counted;
+        }
+        scheduleNext(slots, dayEnd.toInstant(), now);
+        if (slots != previous) {
+            log.info("Posting plan: {} slots until {} ({} posted today, {} this month, backlog {})",
+                    slots.size(), dayEnd.toLocalDate(), postedToday, postedThisMonth, backlog);
+        }
+    }
+
+    // Today's share of the month: the remaining budget over the remaining days, rounded up so the
+    // month is used fully, never past today's cap or the available backlog
+    static int budgetForToday(int dailyCap, int monthlyCap, long postedToday, long postedThisMonth,
+                              int daysLeftInMonth, long backlog) {
+        long leftToday = Math.max(0, dailyCap - postedToday);
+        long leftThisMonth = Math.max(0, monthlyCap - postedThisMonth);
+        long fairShare = (leftThisMonth + postedToday + daysLeftInMonth - 1) / Math.max(daysLeftInMonth, 1) - postedToday;
+        return (int) Math.max(0, Math.min(Math.min(leftToday, leftThisMonth), Math.min(fairShare, backlog)));
+    }
+
+    // count slots, one in the middle of each equal cell of [from, to), moved by up to jitter/2 of a cell
+    static List<Instant> slots(Instant from, Instant to, int count, double jitter, RandomGenerator random) {
+        List<Instant> slots = new ArrayList<>(count);
+        if (count <= 0 || !from.isBefore(to)) {
+            return slots;
+        }
+        double spacing = (double) Duration.between(from, to).toMillis() / count;
+        for (int i = 0; i < count; i++) {
+            double offset = (i + 0.5 + (random.nextDouble() - 0.5) * jitter) * spacing;
+            slots.add(from.plusMillis((long) offset));
+        }
+        return slots;
+    }
+
+    private void scheduleNext(List<Instant> slots, Instant dayEnd, Instant now) {
+        if (next != null) {
+            next.cancel(false);
+        }
+        // Nothing left today: wake up at midnight for the next day's plan
+        Instant at = slots.isEmpty() ? dayEnd : slots.get(0);
+        Runnable task = slots.isEmpty() ? this::replan : this::postSlot;
+        next = executor.schedule(task, Math.max(0, Duration.between(now, at).toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private void postSlot() {
+        try {
+            if (!twitterService.isReady()) {
+                log.warn("Twitter service not ready. Skipping planned slot.");
+            } else if (!tryReserve()) {
+                log.info("Caps already used up by timed tweets. Skipping planned slot.");
+            } else {
+                boolean posted = false;
+                try {
+                    Optional<Tweet> tweet = tweetService.postNextTweet();
+                    tweet.ifPresent(t -> log.info("Posted planned tweet ID: {} - '{}'", t.getId(), t.getText()));
+                    posted = tweet.isPresent();
+                } finally {
+                    release(posted);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Planned post failed", e);
+        } finally {
+            replan();
+        }
+    }
+
+    // posted_at is stored as server-local time
+    private static LocalDateTime toDb(ZonedDateTime time) {
+        return time.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
@@ -0,0 +1,125 @@
+package org.kartikey.tweet_scheduler.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.kartikey.tweet_scheduler.service.BatchPostingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Posts tweets with a scheduledFor at their due time, instead of waiting for the next planned slot.
+// Each due tweet first takes budget from PostingPlanner; over the caps it is left in the backlog for
+// the planner's later slots. Posts run on BatchPostingService's virtual threads, not the ticker.
+@Service
+public class ScheduledTweetDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledTweetDispatcher.class);
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private BatchPostingService batchPostingService;
+
+    @Autowired
+    private PostingPlanner postingPlanner;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tweets.scheduler.tick-ms:100}")
+    private long tickMs;
+
+    private TimingWheel<Long> wheel;
+    private ScheduledExecutorService ticker;
+    private Counter deferred;
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel<>(tickMs, System.currentTimeMillis());
+
+        List<Tweet> scheduled = tweetRepository.findScheduledTweets(LocalDateTime.now());
+        scheduled.forEach(this::schedule);
+        log.info("Timing wheel loaded with {} scheduled tweets", scheduled.size());
+
+        deferred = Counter.builder("tweets.scheduled.deferred")
+                .description("Timed tweets left for the planner because the caps were used up")
+                .register(meterRegistry);
+        ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("timing-wheel-"));
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    public int pendingCount() {
+        return wheel.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetEvent(TweetEvent event) {
+        for (Tweet tweet : event.tweets()) {
+            switch (event.type()) {
+                case CREATED, UPDATED -> {
+                    if (tweet.isPosted() || tweet.getScheduledFor() == null) {
+                        wheel.cancel(tweet.getId());
+                    } else {
+                        schedule(tweet);
+                    }
+                }
+                case POSTED, DELETED -> wheel.cancel(tweet.getId());
+            }
+        }
+    }
+
+    private void schedule(Tweet tweet) {
+        long deadline = tweet.getScheduledFor().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        wheel.schedule(tweet.getId(), deadline);
+    }
+
+    private void tick() {
+        try {
+            for (Long id : wheel.advance(System.currentTimeMillis())) {
+                dispatch(id);
+            }
+        } catch (RuntimeException e) {
+            log.error("Timing wheel tick failed", e);
+        }
+    }
+
+    private void dispatch(Long id) {
+        if (!postingPlanner.tryReserve()) {
+            // Now due, so it is part of the backlog the planner spreads over later days
+            log.info("Daily or monthly cap reached, scheduled tweet ID: {} is left for the planner", id);
+            deferred.increment();
+            return;
+        }
+        batchPostingService.postDue(id).whenComplete((posted, error) -> {
+            postingPlanner.release(posted != null && posted.isPresent());
+            if (error != null) {
+                log.error("Failed to post scheduled tweet ID: {}", id, error);
+            } else {
+                posted.ifPresent(tweet ->
+                        log.info("Posted scheduled tweet ID: {} due at {}", tweet.getId(), tweet.getScheduledFor()));
+            }
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package org.kartikey.tweet_scheduler.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hierarchical timing wheel: LEVELS wheels of SLOTS buckets, each level ticking SLOTS times slower
+// than the one below. Schedule, reschedule and cancel are O(1); timers cascade down a level when
+// the wheel above reaches their bucket. With a 100 ms tick the range covers centuries.
+public class TimingWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    private static final long MAX_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMs;
+    private final Node<K>[][] buckets;
+    private final Map<K, Node<K>> timers = new HashMap<>();
+    private final List<K> expired = new ArrayList<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, long startMs) {
+        this.tickMs = tickMs;
+        this.currentTick = startMs / tickMs;
+        this.buckets = new Node[LEVELS][SLOTS];
+    }
+
+    // Adds a timer or moves an existing one; deadlines already passed fire on the next advance
+    public synchronized void schedule(K key, long deadlineMs) {
+        expired.remove(key);
+        Node<K> node = timers.get(key);
+        if (node != null) {
+            unlink(node);
+        } else {
+            node = new Node<>(key);
+            timers.put(key, node);
+        }
+        node.deadlineTick = Math.max(ceilDiv(deadlineMs, tickMs), currentTick);
+        place(node);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Node<K> node = timers.remove(key);
+        if (node == null) {
+            return expired.remove(key);
+        }
+        unlink(node);
+        return true;
+    }
+
+    // Moves the wheel up to nowMs and returns the keys whose deadline has been reached
+    public synchronized List<K> advance(long nowMs) {
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+            drain(0, (int) (currentTick & SLOT_MASK));
+        }
+
+        if (expired.isEmpty()) {
+            return List.of();
+        }
+        List<K> due = new ArrayList<>(expired);
+        expired.clear();
+        return due;
+    }
+
+    public synchronized int size() {
+        return timers.size() + expired.size();
+    }
+
+    public synchronized boolean contains(K key) {
+        return timers.containsKey(key) || expired.contains(key);
+    }
+
+    private void place(Node<K> node) {
+        long ticks = node.deadlineTick - currentTick;
+        if (ticks <= 0) {
+            timers.remove(node.key);
+            expired.add(node.key);
+            return;
+        }
+        // Beyond the top level's range: park in the top level and re-place on cascade
+        long placeTick = ticks >= MAX_TICKS ? currentTick + MAX_TICKS - 1 : node.deadlineTick;
+        int level = 0;
+        while (level < LEVELS - 1 && ticks >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((placeTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = buckets[level][slot];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        buckets[level][slot] = node;
+    }
+
+    private void unlink(Node<K> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private void cascade(int level, int slot) {
+        Node<K> node = buckets[level][slot];
+        buckets[level][slot] = null;
+        while (node != null) {
+            Node<K> next = node.next;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void drain(int level, int slot) {
+        Node<K> node = buckets[level][slot];
+        buckets[level][slot] = null;
+        while (node != null) {
+            Node<K> next = node.next;
+            timers.remove(node.key);
+            expired.add(node.key);
+            node = next;
+        }
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static final class Node<K> {
+        final K key;
+        long deadlineTick;
+        int level;
+        int slot;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
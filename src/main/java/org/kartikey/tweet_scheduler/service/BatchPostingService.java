@@ -0,0 +1,171 @@
+package org.kartikey.tweet_scheduler.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kartikey.tweet_scheduler.dto.PostBatchRequest;
+import org.kartikey.tweet_scheduler.dto.PostBatchResult;
+import org.kartikey.tweet_scheduler.dto.PostOutcome;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Posts many tweets per request. Each post runs on its own virtual thread, so waiting on Twitter
+// costs no platform thread; a semaphore shared by all batches caps how many calls are in flight,
+// and each account has its own lane semaphore so one busy account cannot take all of them.
+@Service
+public class BatchPostingService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchPostingService.class);
+
+    @Autowired
+    private TweetService tweetService;
+
+    @Autowired
+    private TwitterService twitterService;
+
+    @Value("${tweets.post-batch.concurrency:4}")
+    private int concurrency;
+
+    @Value("${tweets.post-batch.per-account-concurrency:4}")
+    private int perAccountConcurrency;
+
+    @Value("${tweets.post-batch.max-size:100}")
+    private int maxBatchSize;
+
+    private ExecutorService executor;
+    private Semaphore permits;
+    private final Map<Long, Semaphore> lanes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("post-batch-", 0).factory());
+        permits = new Semaphore(concurrency, true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Completes off the request thread; results come back in request order
+    public CompletableFuture<PostBatchResult> postBatch(PostBatchRequest request) {
+        boolean byIds = request.ids() != null && !request.ids().isEmpty();
+        boolean byNext = request.next() != null;
+        if (byIds == byNext) {
+            throw new IllegalArgumentException("Specify either ids or next");
+        }
+        int requested = byIds ? request.ids().size() : request.next();
+        if (requested < 1 || requested > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + maxBatchSize);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            List<CompletableFuture<PostOutcome>> posts = new ArrayList<>(requested);
+            if (byIds) {
+                for (Long id : request.ids().stream().distinct().toList()) {
+                    posts.add(submit(() -> postById(id)));
+                }
+            } else {
+                // Claimed up front in one round trip so concurrent batches never pick the same tweets
+                for (Tweet tweet : tweetService.claimNextTweets(requested)) {
+                    posts.add(submit(() -> postClaimedTweet(tweet)));
+                }
+            }
+
+            List<PostOutcome> results = posts.stream().map(CompletableFuture::join).toList();
+            PostBatchResult result = PostBatchResult.of(requested, System.currentTimeMillis() - start, results);
+            log.info("Batch post of {} tweets: {} posted, {} rate limited, {} failed, {} skipped, {} not found in {} ms",
+                    results.size(), result.posted(), result.rateLimited(), result.failed(), result.skipped(),
+                    result.notFound(), result.durationMillis());
+            return result;
+        }, executor);
+    }
+
+    // Posts tweets the caller has already claimed (the retry worker's batches), under the same permits
+    public List<PostOutcome> postClaimed(List<Tweet> claimed) {
+        List<CompletableFuture<PostOutcome>> posts = claimed.stream()
+                .map(tweet -> submit(() -> postClaimedTweet(tweet)))
+                .toList();
+        return posts.stream().map(CompletableFuture::join).toList();
+    }
+
+    // A timed tweet the timing wheel says is due, on its own virtual thread under the same permits,
+    // so one slow call does not hold up the other tweets due at the same time
+    public CompletableFuture<Optional<Tweet>> postDue(Long id) {
+        return CompletableFuture.supplyAsync(() -> {
+            Long accountId = tweetService.getTweetById(id).map(Tweet::getAccountId).orElse(null);
+            return withPermits(accountId, () -> tweetService.postDueTweet(id));
+        }, executor);
+    }
+
+    private CompletableFuture<PostOutcome> submit(Supplier<PostOutcome> post) {
+        return CompletableFuture.supplyAsync(post, executor);
+    }
+
+    // The account's lane is taken first, so posts queued behind a busy account hold no shared permit
+    private <T> T withPermits(Long accountId, Supplier<T> post) {
+        Long account = accountId != null ? accountId : Objects.requireNonNullElse(twitterService.getDefaultAccountId(), 0L);
+        Semaphore lane = lanes.computeIfAbsent(account, key -> new Semaphore(perAccountConcurrency, true));
+        lane.acquireUninterruptibly();
+        try {
+            permits.acquireUninterruptibly();
+            try {
+                return post.get();
+            } finally {
+                permits.release();
+            }
+        } finally {
+            lane.release();
+        }
+    }
+
+    private PostOutcome postById(Long id) {
+        Optional<Tweet> tweet = tweetService.getTweetById(id);
+        if (tweet.isEmpty()) {
+            return PostOutcome.of(id, PostOutcome.Status.NOT_FOUND, "Tweet not found");
+        }
+        return withPermits(tweet.get().getAccountId(), () -> {
+            try {
+                return PostOutcome.posted(id, tweetService.postTweet(tweet.get()).getTwitterId());
+            } catch (IllegalStateException e) {
+                return PostOutcome.of(id, PostOutcome.Status.SKIPPED, e.getMessage());
+            } catch (Exception e) {
+                return failure(id, e);
+            }
+        });
+    }
+
+    private PostOutcome postClaimedTweet(Tweet tweet) {
+        return withPermits(tweet.getAccountId(), () -> {
+            try {
+                return PostOutcome.posted(tweet.getId(), tweetService.postClaimedTweet(tweet).getTwitterId());
+            } catch (Exception e) {
+                return failure(tweet.getId(), e);
+            }
+        });
+    }
+
+    private PostOutcome failure(Long id, Exception e) {
+        if (e instanceof RateLimitedException) {
+            return PostOutcome.of(id, PostOutcome.Status.RATE_LIMITED, e.getMessage());
+        }
+        log.warn("Batch post of tweet ID: {} failed: {}", id, e.getMessage());
+        return PostOutcome.of(id, PostOutcome.Status.FAILED, e.getMessage());
+    }
+}
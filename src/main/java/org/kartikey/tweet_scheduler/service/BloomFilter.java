@@ -0,0 +1,74 @@
+package org.kartikey.tweet_scheduler.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free Bloom filter keyed by a 128-bit hash (two longs), using Kirsch-Mitzenmacher
+// double hashing for the k probes. Callers supply already well-mixed hashes.
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int probes;
+    private final long capacity;
+    private final AtomicLong insertions = new AtomicLong();
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.probes = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.capacity = n;
+    }
+
+    // Re-adding a hash sets no new bits and is not counted again
+    void put(long h1, long h2) {
+        long combined = h1;
+        boolean changed = false;
+        for (int i = 0; i < probes; i++) {
+            changed |= setBit(Math.floorMod(combined, bitCount));
+            combined += h2;
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+    }
+
+    boolean mightContain(long h1, long h2) {
+        long combined = h1;
+        for (int i = 0; i < probes; i++) {
+            if (!getBit(Math.floorMod(combined, bitCount))) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    // Past capacity the false-positive rate climbs above what the filter was sized for
+    boolean isSaturated() {
+        return insertions.get() > capacity;
+    }
+
+    long insertions() {
+        return insertions.get();
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        while (((current = bits.get(word)) & mask) == 0) {
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean getBit(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,210 @@
+package org.kartikey.tweet_scheduler.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.ContentHash;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.repository.TweetHistoryRepository;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Duplicate-text gate in front of the unique content_hash index. A Bloom filter of every stored
+// hash answers "definitely new" without touching the database; only filter hits are confirmed
+// against hashes reserved by in-flight saves and then the database. The unique index remains
+// the final word for races the filter cannot see (e.g. other instances).
+@Component
+public class ContentHashIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentHashIndex.class);
+
+    private static final int BACKFILL_PAGE = 1000;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private TweetHistoryRepository tweetHistoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tweets.dedup.expected-tweets:1000000}")
+    private long expectedTweets;
+
+    @Value("${tweets.dedup.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+
+    // Accepted but not yet committed, so a second copy in the same import is caught
+    private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        backfillMissingHashes();
+        rebuild();
+
+        Gauge.builder("tweets.dedup.filter.size", this, index -> index.filter.insertions())
+                .description("Content hashes in the duplicate Bloom filter")
+                .register(meterRegistry);
+    }
+
+    public synchronized void rebuild() {
+        long stored = tweetRepository.count() + tweetHistoryRepository.count();
+        BloomFilter fresh = new BloomFilter(Math.max(expectedTweets, stored * 2), falsePositiveRate);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<String> hashes = tweetRepository.streamContentHashes()) {
+                hashes.forEach(hash -> put(fresh, hash));
+            }
+            try (Stream<String> hashes = tweetHistoryRepository.streamContentHashes()) {
+                hashes.forEach(hash -> put(fresh, hash));
+            }
+        });
+        reserved.forEach(hash -> put(fresh, hash));
+        filter = fresh;
+        log.info("Duplicate filter loaded with {} content hashes", fresh.insertions());
+    }
+
+    public boolean isDuplicate(String hash) {
+        return hash != null && mightExist(hash) && (reserved.contains(hash) || isStored(hash));
+    }
+
+    // For edits: is the text already used by a tweet other than this one
+    public boolean isTakenByOther(String hash, Long id) {
+        return hash != null && mightExist(hash)
+                && (tweetRepository.existsByContentHashAndIdNot(hash, id) || tweetHistoryRepository.existsByContentHash(hash));
+    }
+
+    // Claims the hash for a pending insert; false if it is already taken. Release once committed.
+    public boolean reserve(String hash) {
+        if (hash == null) {
+            return true;
+        }
+        if (mightExist(hash) && isStored(hash)) {
+            return false;
+        }
+        if (!reserved.add(hash)) {
+            return false;
+        }
+        put(filter, hash);
+        if (filter.isSaturated()) {
+            resize();
+        }
+        return true;
+    }
+
+    public void release(Collection<String> hashes) {
+        reserved.removeAll(hashes);
+    }
+
+    public void release(String hash) {
+        if (hash != null) {
+            reserved.remove(hash);
+        }
+    }
+
+    // Runs after commit or rollback: stored hashes join the filter, reservations are dropped either way
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onTweetEvent(TweetEvent event) {
+        if (event.type() != TweetEvent.Type.CREATED && event.type() != TweetEvent.Type.UPDATED) {
+            return;
+        }
+        BloomFilter current = filter;
+        for (Tweet tweet : event.tweets()) {
+            String hash = tweet.getContentHash();
+            if (hash != null) {
+                put(current, hash);
+                reserved.remove(hash);
+            }
+        }
+    }
+
+    private synchronized void resize() {
+        if (filter.isSaturated()) {
+            log.info("Duplicate filter past its capacity, resizing");
+            rebuild();
+        }
+    }
+
+    // Archived tweets count too: Twitter rejects reposting the same text
+    private boolean isStored(String hash) {
+        return tweetRepository.existsByContentHash(hash) || tweetHistoryRepository.existsByContentHash(hash);
+    }
+
+    private boolean mightExist(String hash) {
+        return filter.mightContain(high(hash), low(hash));
+    }
+
+    private static void put(BloomFilter target, String hash) {
+        target.put(high(hash), low(hash));
+    }
+
+    // SHA-256 output is uniformly mixed, so its leading 128 bits serve directly as the two probe hashes
+    private static long high(String hash) {
+        return Long.parseUnsignedLong(hash, 0, 16, 16);
+    }
+
+    private static long low(String hash) {
+        return Long.parseUnsignedLong(hash, 16, 32, 16);
+    }
+
+    // Rows stored before content hashes existed. Later copies of a text already hashed stay null,
+    // since the unique index would reject them; they are logged so they can be cleaned up.
+    private void backfillMissingHashes() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        long hashed = 0;
+        long duplicates = 0;
+        while (true) {
+            long cursor = afterId;
+            List<Tweet> page = tweetRepository.findByContentHashIsNullAndIdGreaterThanOrderByIdAsc(cursor, Limit.of(BACKFILL_PAGE));
+            if (page.isEmpty()) {
+                break;
+            }
+            Set<String> seen = new HashSet<>();
+            int[] counts = new int[2];
+            tx.executeWithoutResult(status -> {
+                for (Tweet tweet : page) {
+                    String hash = ContentHash.of(tweet.getText());
+                    if (!seen.add(hash) || tweetRepository.existsByContentHash(hash)) {
+                        counts[1]++;
+                        continue;
+                    }
+                    tweetRepository.setContentHash(tweet.getId(), hash);
+                    counts[0]++;
+                }
+            });
+            hashed += counts[0];
+            duplicates += counts[1];
+            afterId = page.get(page.size() - 1).getId();
+        }
+        if (hashed + duplicates > 0) {
+            log.warn("Backfilled content hashes for {} tweets; {} are duplicates of existing text and were left unhashed",
+                    hashed, duplicates);
+        }
+    }
+}
@@ -2,18 +2,43 @@ package org.kartikey.tweet_scheduler.service;
 
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kartikey.tweet_scheduler.dto.ImportResult;
 import org.kartikey.tweet_scheduler.model.Tweet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class CsvImportService {
@@ -23,40 +48,253 @@ public class CsvImportService {
     @Autowired
     private TweetService tweetService;
 
-    public List<Tweet> importTweetsFromCsv(MultipartFile file) throws IOException, CsvException {
-        List<Tweet> tweets = new ArrayList<>();
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ContentHashIndex contentHashIndex;
+
+    @Autowired
+    private TwitterService twitterService;
+
+    @Autowired
+    private TweetEventStream tweetEventStream;
+
+    @Value("${tweets.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${tweets.import.workers:3}")
+    private int workers;
+
+    @Value("${tweets.import.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
 
-        try (Reader reader = new InputStreamReader(file.getInputStream());
-             CSVReader csvReader = new CSVReader(reader)) {
+    @Value("${tweets.import.job-retention-ms:3600000}")
+    private long jobRetentionMs;
 
-            List<String[]> records = csvReader.readAll();
+    @Value("${tweets.import.progress-interval-ms:1000}")
+    private long progressIntervalMs;
 
-            // Skip header row if present
-            boolean hasHeader = records.size() > 0 && !isNumeric(records.get(0)[0]);
-            int startIndex = hasHeader ? 1 : 0;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
 
-            for (int i = startIndex; i < records.size(); i++) {
-                String[] record = records.get(i);
+    // Readers parse files; chunk workers persist parsed chunks in parallel
+    private ExecutorService jobRunner;
+    private ExecutorService chunkWorkers;
 
-                if (record.length >= 2) {
-                    String text = record[1].trim();
-                    Integer priority = record.length > 2 && isNumeric(record[2]) ?
-                            Integer.parseInt(record[2]) : 0;
+    private DistributionSummary importThroughput;
+    private Counter rowsAccepted;
+    private Counter rowsRejected;
+    private Counter rowsDuplicate;
+
+    @PostConstruct
+    public void init() {
+        jobRunner = Executors.newFixedThreadPool(maxConcurrentJobs, new CustomizableThreadFactory("csv-import-job-"));
+        chunkWorkers = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("csv-import-chunk-"));
+
+        importThroughput = DistributionSummary.builder("tweets.import.throughput")
+                .description("Rows imported per second, one sample per finished job")
+                .baseUnit("rows_per_second")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rowsAccepted = meterRegistry.counter("tweets.import.rows", "result", "accepted");
+        rowsRejected = meterRegistry.counter("tweets.import.rows", "result", "rejected");
+        rowsDuplicate = meterRegistry.counter("tweets.import.rows", "result", "duplicate");
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        jobRunner.shutdownNow();
+        chunkWorkers.shutdown();
+        chunkWorkers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // Spools the upload to a temp file and returns immediately; progress is tracked on the job
+    public ImportJob submitImport(MultipartFile file) throws IOException {
+        Path spooled = Files.createTempFile("tweet-import-", ".csv");
+        file.transferTo(spooled);
+
+        ImportJob job = new ImportJob(file.getOriginalFilename(), Files.size(spooled));
+        jobs.put(job.getId(), job);
+
+        jobRunner.submit(() -> {
+            try (InputStream input = Files.newInputStream(spooled)) {
+                runImport(job, input);
+            } catch (IOException e) {
+                log.error("Import job {} could not read {}", job.getId(), spooled, e);
+                job.fail(e.getMessage());
+                job.complete();
+                reportProgress(job);
+            } finally {
+                deleteQuietly(spooled);
+            }
+        });
 
-                    if (!text.isEmpty() && text.length() <= 280) {
-                        tweets.add(new Tweet(text, priority));
-                    } else {
-                        log.warn("Skipping invalid tweet at row {}: too long or empty", i + 1);
-                    }
+        log.info("Queued import job {} for {} ({} bytes)", job.getId(), file.getOriginalFilename(), file.getSize());
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @Scheduled(fixedDelayString = "${tweets.import.job-retention-ms:3600000}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minusMillis(jobRetentionMs);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    // Reads row by row and hands every chunkSize tweets to a worker, which commits it in its own
+    // transaction. In-flight chunks are capped so memory stays bounded whatever the file size.
+    private void runImport(ImportJob job, InputStream input) {
+        job.start();
+        reportProgress(job);
+        int maxInFlight = workers * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (CSVReader csvReader = new CSVReader(new InputStreamReader(
+                new CountingInputStream(input, job), StandardCharsets.UTF_8))) {
+            List<Tweet> chunk = new ArrayList<>(chunkSize);
+            // One account lookup per distinct id per job, not one per row
+            Map<Long, Boolean> knownAccounts = new HashMap<>();
+            long row = 0;
+            String[] record;
+            while ((record = csvReader.readNext()) != null) {
+                row++;
+
+                // Skip header row if present
+                if (row == 1 && !isNumeric(record[0])) {
+                    continue;
+                }
+
+                job.rowRead();
+                Tweet tweet = parseRecord(record, row, knownAccounts);
+                if (tweet == null) {
+                    job.rejected(1);
+                    continue;
+                }
+                // Filter check, no DB round trip unless the text may have been seen before
+                if (!contentHashIndex.reserve(tweet.getContentHash())) {
+                    job.duplicates(1);
+                    continue;
                 }
+
+                chunk.add(tweet);
+                if (chunk.size() >= chunkSize) {
+                    submitChunk(job, chunk, inFlight);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submitChunk(job, chunk, inFlight);
             }
+        } catch (IOException | CsvException e) {
+            log.error("Import job {} failed while parsing", job.getId(), e);
+            job.fail(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import interrupted");
         }
 
-        log.info("Parsed {} tweets from CSV file", tweets.size());
-        return tweetService.saveAllTweets(tweets);
+        // Wait for the remaining chunks to commit
+        inFlight.acquireUninterruptibly(maxInFlight);
+        job.complete();
+        reportProgress(job);
+
+        ImportResult result = job.toResult();
+        rowsAccepted.increment(result.accepted());
+        rowsRejected.increment(result.rejected());
+        rowsDuplicate.increment(result.duplicates());
+        if (job.getState() == ImportJob.State.COMPLETED && result.durationMillis() > 0) {
+            importThroughput.record((result.accepted() + result.rejected()) * 1000.0 / result.durationMillis());
+        }
+        log.info("Import job {} {}: {} tweets imported, {} rejected, {} duplicates in {} ms", job.getId(),
+                job.getState(), result.accepted(), result.rejected(), result.duplicates(), result.durationMillis());
     }
 
-    private boolean isNumeric(String str) {
+    private void submitChunk(ImportJob job, List<Tweet> chunk, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            chunkWorkers.execute(() -> {
+                try {
+                    tweetService.saveAllTweets(chunk);
+                    job.accepted(chunk.size());
+                } catch (DataIntegrityViolationException e) {
+                    // A copy of some text was committed elsewhere after the reservation; sort it out row by row
+                    releaseReservations(chunk);
+                    saveIndividually(job, chunk);
+                } catch (RuntimeException e) {
+                    releaseReservations(chunk);
+                    log.error("Import job {} failed to save a chunk of {} tweets", job.getId(), chunk.size(), e);
+                    job.rejected(chunk.size());
+                    job.fail(e.getMessage());
+                } finally {
+                    // Before the release, so the final status is always the last one reported
+                    reportProgress(job);
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    // Start, end, and throttled progress in between for the event stream
+    private void reportProgress(ImportJob job) {
+        if (job.isFinished() || job.progressDue(progressIntervalMs)) {
+            tweetEventStream.publishImportProgress(job.status());
+        }
+    }
+
+    private void saveIndividually(ImportJob job, List<Tweet> chunk) {
+        for (Tweet tweet : chunk) {
+            tweet.setId(null); // assigned by the rolled-back batch
+            try {
+                tweetService.saveTweet(tweet);
+                job.accepted(1);
+            } catch (DuplicateTweetException | DataIntegrityViolationException e) {
+                job.duplicates(1);
+            } catch (RuntimeException e) {
+                log.warn("Import job {} could not save tweet: {}", job.getId(), e.getMessage());
+                job.rejected(1);
+            }
+        }
+    }
+
+    private void releaseReservations(List<Tweet> chunk) {
+        contentHashIndex.release(chunk.stream().map(Tweet::getContentHash).filter(Objects::nonNull).toList());
+    }
+
+    Tweet parseRecord(String[] record, long row, Map<Long, Boolean> knownAccounts) {
+        if (record.length < 2) {
+            log.warn("Skipping invalid tweet at row {}: missing text column", row);
+            return null;
+        }
+
+        String text = record[1].trim();
+        Integer priority = record.length > 2 && isNumeric(record[2]) ?
+                Integer.parseInt(record[2]) : 0;
+
+        if (text.isEmpty() || text.length() > 280) {
+            log.warn("Skipping invalid tweet at row {}: too long or empty", row);
+            return null;
+        }
+
+        // Optional fourth column: the account to post from (default account when absent)
+        Long accountId = record.length > 3 && isNumeric(record[3]) ? Long.parseLong(record[3]) : null;
+        if (accountId != null && !knownAccounts.computeIfAbsent(accountId, twitterService::accountExists)) {
+            log.warn("Skipping invalid tweet at row {}: unknown account {}", row, accountId);
+            return null;
+        }
+
+        Tweet tweet = new Tweet(text, priority);
+        tweet.setAccountId(accountId);
+        // Stamp in file order; chunks commit in parallel and would otherwise interleave
+        tweet.setCreatedAt(LocalDateTime.now());
+        return tweet;
+    }
+
+    static boolean isNumeric(String str) {
         try {
             Integer.parseInt(str);
             return true;
@@ -64,4 +302,40 @@ public class CsvImportService {
             return false;
         }
     }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp import file {}", path, e);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final ImportJob job;
+
+        CountingInputStream(InputStream in, ImportJob job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                job.bytesRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                job.bytesRead(n);
+            }
+            return n;
+        }
+    }
 }
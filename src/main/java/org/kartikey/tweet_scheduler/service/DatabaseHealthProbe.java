@@ -0,0 +1,134 @@
+package org.kartikey.tweet_scheduler.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kartikey.tweet_scheduler.dto.DatabaseHealth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Checks the database on its own thread and caches the result, so health endpoints answer
+// from memory instead of competing with real work for a pooled connection
+@Component
+public class DatabaseHealthProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseHealthProbe.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${health.db.probe-interval-ms:15000}")
+    private long intervalMs;
+
+    @Value("${health.db.probe-timeout-seconds:2}")
+    private int timeoutSeconds;
+
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("db-probe-"));
+
+    private volatile DatabaseHealth last = DatabaseHealth.UNKNOWN;
+
+    // Fixed for the life of the pool, so read once
+    private volatile String database;
+    private volatile String url;
+
+    @PostConstruct
+    public void init() {
+        executor.scheduleWithFixedDelay(this::probe, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> snapshot() {
+        DatabaseHealth health = last;
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("status", isStale(health) ? "UNKNOWN" : health.status());
+        snapshot.put("database", health.database());
+        snapshot.put("url", health.url());
+        snapshot.put("acquireMillis", health.acquireMillis());
+        snapshot.put("latencyMillis", health.latencyMillis());
+        snapshot.put("checkedAt", health.checkedAt());
+        if (health.error() != null) {
+            snapshot.put("error", health.error());
+        }
+        snapshot.put("pool", poolStats());
+        return snapshot;
+    }
+
+    void probe() {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            long acquired = System.nanoTime();
+            // isValid is a driver-level round trip (e.g. an empty query on Postgres)
+            if (!connection.isValid(timeoutSeconds)) {
+                record(DatabaseHealth.down("Connection failed validation"), start);
+                return;
+            }
+            if (database == null) {
+                DatabaseMetaData metaData = connection.getMetaData();
+                database = metaData.getDatabaseProductName();
+                url = metaData.getURL();
+            }
+            long end = System.nanoTime();
+            record(DatabaseHealth.up(database, url, millis(acquired - start), millis(end - acquired)), start);
+        } catch (SQLException | RuntimeException e) {
+            if (!"DOWN".equals(last.status())) {
+                log.warn("Database health probe failed: {}", e.getMessage());
+            }
+            record(DatabaseHealth.down(e.getMessage()), start);
+        }
+    }
+
+    private void record(DatabaseHealth health, long start) {
+        meterRegistry.timer("db.health.probe", "status", health.status())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        last = health;
+    }
+
+    // A probe stuck waiting for a connection leaves the last result ageing
+    private boolean isStale(DatabaseHealth health) {
+        return health.checkedAt() == null
+                || health.checkedAt().isBefore(Instant.now().minusMillis(3 * intervalMs));
+    }
+
+    private Map<String, Object> poolStats() {
+        if (!(dataSource instanceof HikariDataSource hikari) || hikari.getHikariPoolMXBean() == null) {
+            return Map.of();
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return Map.of(
+                "active", pool.getActiveConnections(),
+                "idle", pool.getIdleConnections(),
+                "total", pool.getTotalConnections(),
+                "max", hikari.getMaximumPoolSize(),
+                "threadsAwaiting", pool.getThreadsAwaitingConnection()
+        );
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,9 @@
+package org.kartikey.tweet_scheduler.service;
+
+// Twitter rejects a status identical to an earlier one, so such tweets are refused up front
+public class DuplicateTweetException extends RuntimeException {
+
+    public DuplicateTweetException() {
+        super("A tweet with the same text already exists");
+    }
+}
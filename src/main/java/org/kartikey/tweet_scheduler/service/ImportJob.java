@@ -0,0 +1,113 @@
+package org.kartikey.tweet_scheduler.service;
+
+import org.kartikey.tweet_scheduler.dto.ImportJobStatus;
+import org.kartikey.tweet_scheduler.dto.ImportResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of a single CSV import, updated concurrently by the reader and chunk workers
+public class ImportJob {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String fileName;
+    private final long totalBytes;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong lastProgressAt = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ImportJob(String fileName, long totalBytes) {
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+    }
+
+    public String getId() { return id; }
+
+    public State getState() { return state; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+
+    void start() {
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        state = error == null ? State.COMPLETED : State.FAILED;
+    }
+
+    void fail(String message) {
+        // Keep the first error; later chunk failures are usually the same cause
+        if (error == null) {
+            error = message;
+        }
+    }
+
+    void rowRead() { rowsRead.incrementAndGet(); }
+
+    void rejected(long count) { rejected.addAndGet(count); }
+
+    void accepted(long count) { accepted.addAndGet(count); }
+
+    void duplicates(long count) { duplicates.addAndGet(count); }
+
+    void bytesRead(long count) { bytesRead.addAndGet(count); }
+
+    // True at most once per interval across all chunk workers
+    boolean progressDue(long intervalMs) {
+        long now = System.currentTimeMillis();
+        long last = lastProgressAt.get();
+        return now - last >= intervalMs && lastProgressAt.compareAndSet(last, now);
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    public ImportResult toResult() {
+        long end = finishedAt != null ? finishedAt.toEpochMilli() : System.currentTimeMillis();
+        long start = startedAt != null ? startedAt.toEpochMilli() : end;
+        return new ImportResult(accepted.get(), rejected.get(), duplicates.get(), end - start);
+    }
+
+    public ImportJobStatus status() {
+        Instant start = startedAt;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double elapsedSeconds = start == null ? 0 : Math.max(Duration.between(start, end).toMillis(), 1) / 1000.0;
+
+        long rows = rowsRead.get();
+        long bytes = bytesRead.get();
+        double rowsPerSecond = elapsedSeconds == 0 ? 0 : rows / elapsedSeconds;
+
+        // ETA from byte throughput, since the row count of the file is not known up front
+        Long eta = null;
+        if (state == State.RUNNING && bytes > 0 && totalBytes > 0) {
+            double bytesPerSecond = bytes / elapsedSeconds;
+            eta = Math.round(Math.max(totalBytes - bytes, 0) / bytesPerSecond);
+        } else if (isFinished()) {
+            eta = 0L;
+        }
+
+        return new ImportJobStatus(id, state.name(), fileName, rows, accepted.get(), rejected.get(), duplicates.get(),
+                bytes, totalBytes, Math.round(rowsPerSecond * 10) / 10.0, eta, startedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,119 @@
+package org.kartikey.tweet_scheduler.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Counts calls, new connections and TLS handshakes on the shared Twitter transport, as Micrometer
+// meters so they show up in Prometheus. A healthy pool shows handshakes staying flat while calls grow.
+public class OutboundHttpMetrics implements EventListener.Factory {
+
+    private final Timer calls;
+    private final Counter failures;
+    private final Counter connects;
+    private final Counter handshakes;
+
+    public OutboundHttpMetrics(MeterRegistry meterRegistry) {
+        calls = Timer.builder("twitter.http.calls")
+                .description("Outbound Twitter HTTP calls, from start to end or failure")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        failures = Counter.builder("twitter.http.failures")
+                .description("Failed calls and failed connection attempts")
+                .register(meterRegistry);
+        connects = Counter.builder("twitter.http.connects")
+                .description("New connections opened by the pool")
+                .register(meterRegistry);
+        handshakes = Counter.builder("twitter.http.tls.handshakes")
+                .description("TLS handshakes completed")
+                .register(meterRegistry);
+    }
+
+    @NonNull
+    @Override
+    public EventListener create(@NonNull Call call) {
+        return new CallListener();
+    }
+
+    public long getCalls() { return calls.count(); }
+
+    public long getFailures() { return (long) failures.count(); }
+
+    public long getConnects() { return (long) connects.count(); }
+
+    public long getHandshakes() { return (long) handshakes.count(); }
+
+    public double getMeanLatencyMillis() {
+        return calls.mean(TimeUnit.MILLISECONDS);
+    }
+
+    // Over the timer's recent window, not since startup
+    public double getMaxLatencyMillis() {
+        return calls.max(TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("calls", getCalls());
+        snapshot.put("failures", getFailures());
+        snapshot.put("connects", getConnects());
+        snapshot.put("tlsHandshakes", getHandshakes());
+        snapshot.put("meanLatencyMs", Math.round(getMeanLatencyMillis() * 100) / 100.0);
+        snapshot.put("maxLatencyMs", Math.round(getMaxLatencyMillis() * 100) / 100.0);
+        return snapshot;
+    }
+
+    private class CallListener extends EventListener {
+
+        private long startNanos;
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+            connects.increment();
+        }
+
+        @Override
+        public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+            handshakes.increment();
+        }
+
+        @Override
+        public void connectFailed(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy,
+                                  @Nullable Protocol protocol, @NonNull IOException e) {
+            failures.increment();
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            record();
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException e) {
+            failures.increment();
+            record();
+        }
+
+        private void record() {
+            calls.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
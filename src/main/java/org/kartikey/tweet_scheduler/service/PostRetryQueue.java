@@ -0,0 +1,193 @@
+package org.kartikey.tweet_scheduler.service;
+
+import com.twitter.clientlib.ApiException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kartikey.tweet_scheduler.dto.PostOutcome;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+// Durable retries for failed posts. The retry state lives on the tweet row (status FAILED, attempts,
+// last_error, next_attempt_at), so pending retries survive restarts and are shared by all instances.
+// A worker claims due retries in batches. Delay is exponential in the attempt number and jittered;
+// throttled posts wait for the rate limiter instead and keep their attempt budget. Permanent failures
+// and exhausted tweets become DEAD.
+@Component
+public class PostRetryQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(PostRetryQueue.class);
+
+    @Autowired
+    @Lazy
+    private TweetService tweetService;
+
+    @Autowired
+    @Lazy
+    private BatchPostingService batchPostingService;
+
+    @Autowired
+    private TweetClaimService tweetClaimService;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tweets.retry.base-delay-ms:5000}")
+    private long baseDelayMs;
+
+    @Value("${tweets.retry.max-delay-ms:3600000}")
+    private long maxDelayMs;
+
+    @Value("${tweets.retry.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${tweets.retry.throttle-spread-ms:30000}")
+    private long throttleSpreadMs;
+
+    @Value("${tweets.retry.batch-size:50}")
+    private int batchSize;
+
+    @Value("${tweets.retry.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("post-retry-"));
+
+    // Kept current from the outcomes this instance records, so scraping never touches the database;
+    // re-read on a slow schedule to pick up other instances and deletes
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        refreshCounts();
+        Gauge.builder("tweets.retry.pending", pending, AtomicLong::get)
+                .description("Failed tweets waiting for a retry")
+                .register(meterRegistry);
+        Gauge.builder("tweets.retry.dead", dead, AtomicLong::get)
+                .description("Dead-lettered tweets")
+                .register(meterRegistry);
+
+        executor.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Records a failed attempt on a claimed tweet and returns when the next one is due,
+    // or null if the tweet was dead-lettered
+    public LocalDateTime recordFailure(Tweet tweet, Exception error) {
+        int attempt = attemptsAfter(tweet.getAttempts(), error);
+        LocalDateTime retryAt = null;
+        if (error instanceof RateLimitedException throttled) {
+            // Twitter never saw the tweet, so only wait for the bucket and keep the attempt budget
+            long delay = throttledDelayMs(throttled.getRetryAfter().toMillis(), throttleSpreadMs, ThreadLocalRandom.current());
+            retryAt = LocalDateTime.now().plusNanos(delay * 1_000_000);
+            log.info("Tweet ID: {} throttled, retrying in {} ms", tweet.getId(), delay);
+        } else if (isPermanent(error)) {
+            log.error("Tweet ID: {} failed permanently, moved to dead letter: {}", tweet.getId(), error.getMessage());
+        } else if (attempt >= maxAttempts) {
+            log.error("Giving up on tweet ID: {} after {} attempts: {}", tweet.getId(), attempt, error.getMessage());
+        } else {
+            long delay = backoffMs(attempt, baseDelayMs, maxDelayMs, ThreadLocalRandom.current());
+            retryAt = LocalDateTime.now().plusNanos(delay * 1_000_000);
+            log.info("Tweet ID: {} queued for retry #{} in {} ms", tweet.getId(), attempt, delay);
+        }
+
+        tweetClaimService.fail(tweet.getId(), error.getMessage(), attempt, retryAt);
+        if (wasPending(tweet)) {
+            pending.decrementAndGet();
+        }
+        (retryAt != null ? pending : dead).incrementAndGet();
+        String result = error instanceof RateLimitedException ? "throttled" : retryAt != null ? "retry" : "dead";
+        meterRegistry.counter("tweets.retry.scheduled", "result", result).increment();
+        return retryAt;
+    }
+
+    // Called before the tweet's retry state is cleared
+    public void recordPosted(Tweet tweet) {
+        if (wasPending(tweet)) {
+            pending.decrementAndGet();
+        }
+    }
+
+    public void recordRequeued() {
+        dead.decrementAndGet();
+    }
+
+    // A claim keeps next_attempt_at, so a set one means the tweet came from the retry queue
+    private static boolean wasPending(Tweet tweet) {
+        return tweet.getNextAttemptAt() != null;
+    }
+
+    // Rate limiting (an empty bucket or a 429) does not count towards max-attempts
+    static int attemptsAfter(int attempts, Exception error) {
+        return error instanceof RateLimitedException ? attempts : attempts + 1;
+    }
+
+    // Uniform in [backoff / 2, backoff] for backoff = base * 2^(attempt - 1), capped at max
+    static long backoffMs(int attempt, long baseMs, long maxMs, RandomGenerator random) {
+        long backoff = Math.min(maxMs, baseMs << Math.min(attempt - 1, 30));
+        return random.nextLong(backoff / 2, backoff + 1);
+    }
+
+    // Uniform in [retryAfter, retryAfter + spread], so tweets throttled together do not all hit the refilled bucket at once
+    static long throttledDelayMs(long retryAfterMs, long spreadMs, RandomGenerator random) {
+        return retryAfterMs + random.nextLong(0, spreadMs + 1);
+    }
+
+    // Twitter rejected the tweet itself (duplicate, too long, forbidden): retrying cannot help.
+    // 401 and 429 are about the token and the rate limit, so they stay retryable.
+    static boolean isPermanent(Exception error) {
+        return error instanceof ApiException api
+                && api.getCode() >= 400 && api.getCode() < 500
+                && api.getCode() != 401 && api.getCode() != 429;
+    }
+
+    void drain() {
+        try {
+            List<Tweet> due;
+            do {
+                due = tweetService.claimDueRetries(batchSize);
+                if (!due.isEmpty()) {
+                    List<PostOutcome> outcomes = batchPostingService.postClaimed(due);
+                    long posted = outcomes.stream().filter(outcome -> outcome.status() == PostOutcome.Status.POSTED).count();
+                    log.info("Retried {} tweets: {} posted", outcomes.size(), posted);
+                }
+            } while (due.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Retry worker failed, will try again", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tweets.retry.count-refresh-ms:300000}",
+            initialDelayString = "${tweets.retry.count-refresh-ms:300000}")
+    public void refreshCounts() {
+        pending.set(tweetRepository.countByStatus(TweetStatus.FAILED));
+        dead.set(tweetRepository.countByStatus(TweetStatus.DEAD));
+    }
+}
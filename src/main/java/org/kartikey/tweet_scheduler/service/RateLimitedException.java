@@ -0,0 +1,24 @@
+package org.kartikey.tweet_scheduler.service;
+
+import java.time.Duration;
+
+// Thrown instead of sleeping when an endpoint has no budget left; retryAfter says when it will
+public class RateLimitedException extends Exception {
+
+    private final String endpoint;
+    private final Duration retryAfter;
+
+    public RateLimitedException(String endpoint, Duration retryAfter) {
+        this(endpoint, retryAfter, null);
+    }
+
+    public RateLimitedException(String endpoint, Duration retryAfter, Throwable cause) {
+        super("Rate limit reached for " + endpoint + ", retry in " + retryAfter.toSeconds() + "s", cause);
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getEndpoint() { return endpoint; }
+
+    public Duration getRetryAfter() { return retryAfter; }
+}
@@ -0,0 +1,217 @@
+package org.kartikey.tweet_scheduler.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.kartikey.tweet_scheduler.dto.TweetQueueEntry;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+// In-memory index of unposted tweets, ordered the same way as TweetRepository.findNextTweetToPost.
+// Tweets waiting for a retry or dead-lettered are left out (see TweetRepository.QUEUED).
+// Tweets scheduled in the future wait in a separate heap until they are due.
+// Removals are lazy: heap entries that no longer match the live map are skipped on peek.
+@Component
+public class ReadyQueueIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadyQueueIndex.class);
+
+    static final Comparator<TweetQueueEntry> POSTING_ORDER = Comparator
+            .comparingInt(TweetQueueEntry::priority).reversed()
+            .thenComparing(TweetQueueEntry::createdAt)
+            .thenComparingLong(TweetQueueEntry::id);
+
+    private static final Comparator<TweetQueueEntry> DUE_ORDER = Comparator
+            .comparing(TweetQueueEntry::scheduledFor)
+            .thenComparingLong(TweetQueueEntry::id);
+
+    private static final Comparator<TweetQueueEntry> AGE_ORDER = Comparator
+            .comparing(TweetQueueEntry::createdAt)
+            .thenComparingLong(TweetQueueEntry::id);
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, TweetQueueEntry> live = new HashMap<>();
+    private PriorityQueue<TweetQueueEntry> ready = new PriorityQueue<>(POSTING_ORDER);
+    private PriorityQueue<TweetQueueEntry> delayed = new PriorityQueue<>(DUE_ORDER);
+    private PriorityQueue<TweetQueueEntry> byAge = new PriorityQueue<>(AGE_ORDER);
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+
+        // Backlog gauges read from memory, so scraping never touches the database
+        Gauge.builder("tweets.unposted", this, ReadyQueueIndex::size)
+                .description("Unposted tweets waiting in the queue")
+                .register(meterRegistry);
+        Gauge.builder("tweets.unposted.oldest.age", this, index -> index.oldestCreatedAt()
+                        .map(createdAt -> Duration.between(createdAt, LocalDateTime.now()).toMillis() / 1000.0)
+                        .orElse(0.0))
+                .description("Age of the oldest unposted tweet")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public synchronized void rebuild() {
+        live.clear();
+        ready = new PriorityQueue<>(POSTING_ORDER);
+        delayed = new PriorityQueue<>(DUE_ORDER);
+        byAge = new PriorityQueue<>(AGE_ORDER);
+
+        // Streaming queries need an open transaction; also called from init(), so no proxy to rely on
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<TweetQueueEntry> entries = tweetRepository.streamUnpostedQueueEntries()) {
+                entries.forEach(this::insert);
+            }
+        });
+        log.info("Ready queue index loaded with {} unposted tweets", live.size());
+    }
+
+    public synchronized OptionalLong peek(LocalDateTime now) {
+        promoteDue(now);
+        while (!ready.isEmpty()) {
+            TweetQueueEntry head = ready.peek();
+            if (live.get(head.id()) == head) {
+                return OptionalLong.of(head.id());
+            }
+            ready.poll(); // stale
+        }
+        return OptionalLong.empty();
+    }
+
+    public synchronized void add(Tweet tweet) {
+        // Same membership as TweetRepository.QUEUED, so an edit of a failed tweet does not re-add it
+        if (tweet.isPosted() || tweet.getNextAttemptAt() != null || tweet.getStatus() == TweetStatus.DEAD) {
+            remove(tweet.getId());
+            return;
+        }
+        insert(TweetQueueEntry.of(tweet));
+        compactIfNeeded();
+    }
+
+    public synchronized void remove(Long id) {
+        live.remove(id);
+        compactIfNeeded();
+    }
+
+    public synchronized int size() {
+        return live.size();
+    }
+
+    public synchronized Optional<LocalDateTime> oldestCreatedAt() {
+        while (!byAge.isEmpty()) {
+            TweetQueueEntry oldest = byAge.peek();
+            if (live.get(oldest.id()) == oldest) {
+                return Optional.of(oldest.createdAt());
+            }
+            byAge.poll(); // stale
+        }
+        return Optional.empty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetEvent(TweetEvent event) {
+        for (Tweet tweet : event.tweets()) {
+            switch (event.type()) {
+                case CREATED, UPDATED -> add(tweet);
+                case POSTED, DELETED -> remove(tweet.getId());
+            }
+        }
+    }
+
+    // Cross-check the head of the index against the database and rebuild on drift
+    @Scheduled(fixedDelayString = "${tweets.ready-queue.verify-interval-ms:300000}",
+            initialDelayString = "${tweets.ready-queue.verify-interval-ms:300000}")
+    public void verify() {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<TweetQueueEntry> expected = tweetRepository.findNextQueueEntry(now, Limit.of(1));
+        OptionalLong actual = peek(now);
+
+        boolean consistent = expected.isPresent()
+                ? actual.isPresent() && actual.getAsLong() == expected.get().id()
+                : actual.isEmpty();
+        long queued = tweetRepository.countQueueEntries();
+
+        if (!consistent || queued != size()) {
+            log.warn("Ready queue index drifted (head {} vs db {}, size {} vs db {}), rebuilding",
+                    actual, expected.map(TweetQueueEntry::id), size(), queued);
+            rebuild();
+        }
+    }
+
+    private void insert(TweetQueueEntry entry) {
+        live.put(entry.id(), entry);
+        byAge.add(entry);
+        if (entry.scheduledFor() == null) {
+            ready.add(entry);
+        } else {
+            delayed.add(entry);
+        }
+    }
+
+    private void promoteDue(LocalDateTime now) {
+        while (!delayed.isEmpty() && delayed.peek().isDueAt(now)) {
+            TweetQueueEntry entry = delayed.poll();
+            if (live.get(entry.id()) == entry) {
+                ready.add(entry);
+            }
+        }
+    }
+
+    // Drop stale heap entries once they outnumber live ones
+    private void compactIfNeeded() {
+        if (Math.max(ready.size() + delayed.size(), byAge.size()) > 2 * live.size() + 1024) {
+            PriorityQueue<TweetQueueEntry> compactReady = new PriorityQueue<>(POSTING_ORDER);
+            PriorityQueue<TweetQueueEntry> compactDelayed = new PriorityQueue<>(DUE_ORDER);
+            PriorityQueue<TweetQueueEntry> compactByAge = new PriorityQueue<>(AGE_ORDER);
+            for (TweetQueueEntry entry : ready) {
+                if (live.get(entry.id()) == entry) {
+                    compactReady.add(entry);
+                }
+            }
+            for (TweetQueueEntry entry : delayed) {
+                if (live.get(entry.id()) == entry) {
+                    compactDelayed.add(entry);
+                }
+            }
+            for (TweetQueueEntry entry : byAge) {
+                if (live.get(entry.id()) == entry) {
+                    compactByAge.add(entry);
+                }
+            }
+            ready = compactReady;
+            delayed = compactDelayed;
+            byAge = compactByAge;
+        }
+    }
+}
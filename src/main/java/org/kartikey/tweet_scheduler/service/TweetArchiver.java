@@ -0,0 +1,110 @@
+package org.kartikey.tweet_scheduler.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.kartikey.tweet_scheduler.repository.TweetHistoryPartitions;
+import org.kartikey.tweet_scheduler.repository.TweetHistoryRepository;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+// Moves posted tweets out of the hot tweets table into tweet_history in small batches, so the
+// pending-work queries only ever see the unposted working set. Each batch copies and deletes in
+// one transaction; rows locked by another instance's archiver are skipped.
+@Component
+public class TweetArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetArchiver.class);
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private TweetHistoryRepository tweetHistoryRepository;
+
+    @Autowired
+    private TweetHistoryPartitions partitions;
+
+    @Autowired
+    private TweetCache tweetCache;
+
+    @Autowired
+    private TweetStatsService tweetStatsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tweets.archive.batch-size:1000}")
+    private int batchSize;
+
+    // Posted tweets stay hot this long, for recent-activity views
+    @Value("${tweets.archive.retain-posted-ms:86400000}")
+    private long retainPostedMs;
+
+    private Counter archived;
+
+    @PostConstruct
+    public void init() {
+        archived = Counter.builder("tweets.archived")
+                .description("Posted tweets moved to tweet_history")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${tweets.archive.interval-ms:3600000}",
+            initialDelayString = "${tweets.archive.interval-ms:3600000}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(retainPostedMs * 1_000_000);
+        long total = 0;
+        int moved;
+        do {
+            moved = archiveBatch(cutoff);
+            total += moved;
+        } while (moved == batchSize);
+
+        if (total > 0) {
+            log.info("Archived {} posted tweets older than {}", total, cutoff);
+        }
+    }
+
+    int archiveBatch(LocalDateTime cutoff) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> ids;
+        try {
+            ids = tx.execute(status -> {
+                List<Long> batch = tweetRepository.lockArchivableIds(cutoff, batchSize);
+                if (batch.isEmpty()) {
+                    return batch;
+                }
+                partitions.ensure(tweetRepository.findPostedMonths(batch).stream()
+                        .map(row -> YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()))
+                        .toList());
+                tweetHistoryRepository.copyFromTweets(batch, LocalDateTime.now());
+                tweetRepository.deleteAllByIdIn(batch);
+                return batch;
+            });
+        } catch (RuntimeException e) {
+            partitions.reset();
+            log.error("Archiving batch failed, will retry on the next run", e);
+            return 0;
+        }
+
+        tweetCache.evict(ids);
+        tweetStatsService.onArchived(ids.size());
+        archived.increment(ids.size());
+        return ids.size();
+    }
+}
@@ -0,0 +1,174 @@
+package org.kartikey.tweet_scheduler.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.kartikey.tweet_scheduler.dto.TweetSummary;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Read-through cache for single tweets and the unposted/scheduled views. Entries are evicted
+// after commit of every write TweetService makes; the TTL only bounds staleness from writes
+// this instance cannot see (other instances, manual SQL). The same evictions drive the
+// table-wide version behind the ETags of the read endpoints.
+@Component
+public class TweetCache {
+
+    public enum View {
+        UNPOSTED,
+        SCHEDULED
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tweets.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${tweets.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    private Cache<Long, Tweet> tweets;
+    private Cache<View, List<TweetSummary>> views;
+
+    // Tells this run's tags apart from the previous run's, whose counter started at zero too
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        tweets = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        views = Caffeine.newBuilder()
+                .expireAfter(new ViewExpiry(ttlMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, tweets, "tweets.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, views, "tweets.views");
+    }
+
+    // Misses are not cached, so a tweet created elsewhere shows up on the next read.
+    // The cache keeps its own copy and hands out copies, so no caller ever mutates a shared instance.
+    public Optional<Tweet> get(Long id, Function<Long, Optional<Tweet>> loader) {
+        return Optional.ofNullable(tweets.get(id, key -> loader.apply(key).map(Tweet::copy).orElse(null)))
+                .map(Tweet::copy);
+    }
+
+    public List<TweetSummary> view(View view, Supplier<List<TweetSummary>> loader) {
+        return views.get(view, key -> List.copyOf(loader.get()));
+    }
+
+    // For changes that do not go through a TweetEvent (claims and failed posts)
+    public void evict(Long id) {
+        version.incrementAndGet();
+        tweets.invalidate(id);
+        views.invalidateAll();
+    }
+
+    public void evict(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            version.incrementAndGet();
+            tweets.invalidateAll(ids);
+            views.invalidateAll();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetEvent(TweetEvent event) {
+        version.incrementAndGet();
+        boolean unposted = false;
+        boolean scheduled = false;
+        for (Tweet tweet : event.tweets()) {
+            tweets.invalidate(tweet.getId());
+            switch (event.type()) {
+                // Previous state is unknown, so it may have left either view
+                case UPDATED -> {
+                    unposted = true;
+                    scheduled = true;
+                }
+                case CREATED, POSTED, DELETED -> {
+                    unposted |= event.type() == TweetEvent.Type.POSTED || !tweet.isPosted();
+                    scheduled |= tweet.getScheduledFor() != null;
+                }
+            }
+        }
+        if (unposted) {
+            views.invalidate(View.UNPOSTED);
+        }
+        if (scheduled) {
+            views.invalidate(View.SCHEDULED);
+        }
+    }
+
+    // Changes with every write this instance makes, and at least once per TTL so writes from other
+    // instances are picked up as soon as the cached views would pick them up
+    public String versionTag() {
+        return bootId + "-" + version.get() + "-" + System.currentTimeMillis() / ttlMs;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tweets", describe(tweets.stats(), tweets.estimatedSize()));
+        stats.put("views", describe(views.stats(), views.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        return Map.of(
+                "size", size,
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictions", stats.evictionCount()
+        );
+    }
+
+    // The scheduled view also expires when its earliest tweet falls due, since the query
+    // only returns tweets scheduled after now
+    private record ViewExpiry(long ttlMs) implements Expiry<View, List<TweetSummary>> {
+
+        @Override
+        public long expireAfterCreate(View view, List<TweetSummary> tweets, long currentTime) {
+            long ttlNanos = Duration.ofMillis(ttlMs).toNanos();
+            if (view != View.SCHEDULED || tweets.isEmpty()) {
+                return ttlNanos;
+            }
+            LocalDateTime earliest = tweets.get(0).scheduledFor();
+            long untilDue = Duration.between(LocalDateTime.now(), earliest).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilDue));
+        }
+
+        @Override
+        public long expireAfterUpdate(View view, List<TweetSummary> tweets, long currentTime, long currentDuration) {
+            return expireAfterCreate(view, tweets, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(View view, List<TweetSummary> tweets, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
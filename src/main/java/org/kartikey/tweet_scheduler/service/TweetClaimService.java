@@ -0,0 +1,104 @@
+package org.kartikey.tweet_scheduler.service;
+
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+// Hands out time-limited leases on tweets so replicas pull disjoint work, and records the
+// outcome once the Twitter call returns. Each step commits on its own so other instances see it
+// immediately and no connection is held while the remote call is in progress.
+@Service
+public class TweetClaimService {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetClaimService.class);
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Value("${tweets.claim.lease-ms:300000}")
+    private long leaseMs;
+
+    private final String owner;
+
+    public TweetClaimService(@Value("${tweets.instance-id:}") String instanceId) {
+        this.owner = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean claim(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return tweetRepository.claim(id, owner, now, now.plusNanos(leaseMs * 1_000_000)) == 1;
+    }
+
+    // Claims up to limit due tweets in posting order; concurrent callers get disjoint batches.
+    // Tweets of skipAccounts stay put (defaultAccount stands in for tweets without an account).
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Long> claimBatch(int limit, Long defaultAccount, Collection<Long> skipAccounts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = skipAccounts.isEmpty()
+                ? tweetRepository.lockClaimableIds(now, limit)
+                : tweetRepository.lockClaimableIdsExcluding(now, limit,
+                        Objects.requireNonNullElse(defaultAccount, -1L), skipAccounts);
+        if (!ids.isEmpty()) {
+            tweetRepository.claimAll(ids, owner, now.plusNanos(leaseMs * 1_000_000));
+            log.debug("Claimed {} tweets as {}", ids.size(), owner);
+        }
+        return ids;
+    }
+
+    // IN_FLIGHT -> POSTED
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void complete(Long id, String twitterId, LocalDateTime postedAt) {
+        tweetRepository.markPosted(id, twitterId, postedAt);
+    }
+
+    // Due retries in the order they fell due, leased like any other claim; skipAccounts as in claimBatch
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Long> claimDueRetries(int limit, Long defaultAccount, Collection<Long> skipAccounts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = skipAccounts.isEmpty()
+                ? tweetRepository.lockDueRetryIds(now, limit)
+                : tweetRepository.lockDueRetryIdsExcluding(now, limit,
+                        Objects.requireNonNullElse(defaultAccount, -1L), skipAccounts);
+        if (!ids.isEmpty()) {
+            tweetRepository.claimAll(ids, owner, now.plusNanos(leaseMs * 1_000_000));
+        }
+        return ids;
+    }
+
+    // IN_FLIGHT -> FAILED (claimable again at retryAt) or, with no retryAt, DEAD; releases the lease
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void fail(Long id, String error, int attempts, LocalDateTime retryAt) {
+        String message = error == null ? "unknown error" : error;
+        tweetRepository.markFailed(id, owner, message.length() > 500 ? message.substring(0, 500) : message,
+                retryAt != null ? TweetStatus.FAILED : TweetStatus.DEAD, attempts, retryAt);
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
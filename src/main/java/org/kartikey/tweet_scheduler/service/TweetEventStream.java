@@ -0,0 +1,286 @@
+package org.kartikey.tweet_scheduler.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kartikey.tweet_scheduler.dto.ImportJobStatus;
+import org.kartikey.tweet_scheduler.dto.TweetDelta;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fans tweet and import changes out to GET /api/tweets/events subscribers. Every event is serialized
+// once and offered to each subscriber's bounded buffer; a small sender pool writes the buffers out.
+// Producers never wait on a client: a subscriber whose buffer is full is disconnected (EventSource
+// reconnects on its own) and can spot the gap from the event ids. An idle subscriber holds no thread.
+// A send stuck longer than send-timeout-ms drops its subscriber and lends the pool a replacement
+// thread until the socket gives up, so a few stalled clients cannot starve the rest.
+@Component
+public class TweetEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetEventStream.class);
+
+    // Subscriber.sendStartedAt markers; System.nanoTime() can be any other value, negative included
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long STALLED = Long.MIN_VALUE + 1;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tweets.events.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${tweets.events.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${tweets.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${tweets.events.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${tweets.events.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${tweets.events.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Platform threads: SseEmitter.send is synchronized and would pin a virtual thread on a slow socket
+    private ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeat =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("event-stream-heartbeat-"));
+
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("event-stream-"));
+
+        Gauge.builder("tweets.events.subscribers", subscribers, Set::size)
+                .description("Open event stream connections")
+                .register(meterRegistry);
+        dropped = Counter.builder("tweets.events.dropped")
+                .description("Subscribers disconnected for falling behind")
+                .register(meterRegistry);
+
+        // Keeps proxies from closing idle connections and finds clients that went away
+        heartbeat.scheduleWithFixedDelay(() -> broadcast(SseEmitter.event().comment("ping").build()),
+                heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        heartbeat.scheduleWithFixedDelay(this::dropStalledSubscribers,
+                sendTimeoutMs / 2, sendTimeoutMs / 2, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    // Empty when the subscriber limit is reached
+    public Optional<SseEmitter> subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return Optional.of(subscriber.emitter);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetEvent(TweetEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String name = event.type().name().toLowerCase(Locale.ROOT);
+        if (event.tweets().size() == 1) {
+            publish(name, TweetDelta.of(event.tweets().get(0)));
+        } else {
+            // Import chunks: one message per chunk, not one per row
+            publish(name + "-batch", Map.of("ids", event.tweets().stream().map(Tweet::getId).toList()));
+        }
+    }
+
+    // Failed posts are recorded outside the caller's transaction, so they do not go through TweetEvent
+    public void publishFailed(Tweet tweet) {
+        publish("failed", TweetDelta.of(tweet));
+    }
+
+    public void publishImportProgress(ImportJobStatus status) {
+        publish("import", status);
+    }
+
+    private void publish(String name, Object data) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} event", name, e);
+            return;
+        }
+        broadcast(SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(name)
+                .data(json, MediaType.APPLICATION_JSON)
+                .build());
+    }
+
+    private void broadcast(Set<DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.buffer.offer(event)) {
+                log.info("Event stream subscriber fell {} events behind, disconnecting", bufferSize);
+                dropped.increment();
+                close(subscriber);
+                continue;
+            }
+            if (subscriber.draining.compareAndSet(false, true)) {
+                execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            senders.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Event stream is shutting down, dropping task");
+        }
+    }
+
+    // At most one drain per subscriber at a time, so its events go out in order.
+    // Whoever holds draining also completes a closed subscriber, so complete() never waits on a send.
+    private void drain(Subscriber subscriber) {
+        do {
+            Set<DataWithMediaType> event;
+            while (!subscriber.closed && (event = subscriber.buffer.poll()) != null) {
+                subscriber.sendStartedAt.set(System.nanoTime());
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away or was completed; draining stays set so nothing is scheduled again
+                    disconnect(subscriber);
+                    return;
+                } finally {
+                    if (subscriber.sendStartedAt.getAndSet(IDLE) == STALLED) {
+                        resizeSenders(-1);
+                    }
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.emitter.complete();
+                return;
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+
+        // Closed after the loop let go of draining, and close() saw it still held
+        if (subscriber.closed && subscriber.draining.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    // Drops subscribers whose current send has been blocked for longer than send-timeout-ms
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedAt.get();
+            if (started != IDLE && started != STALLED && now - started > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)
+                    && subscriber.sendStartedAt.compareAndSet(started, STALLED)) {
+                log.info("Event stream subscriber stuck in a send for over {} ms, disconnecting", sendTimeoutMs);
+                dropped.increment();
+                close(subscriber);
+                // Its sender stays blocked until the socket gives up; the drain gives the thread back then
+                resizeSenders(1);
+            }
+        }
+    }
+
+    private synchronized void resizeSenders(int delta) {
+        int size = senders.getCorePoolSize() + delta;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    // Stops delivery now; the emitter is completed by the drain in progress, if any
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        disconnect(subscriber);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            execute(subscriber.emitter::complete);
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.buffer.clear();
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the current send started, IDLE between sends, STALLED once given up on
+        private final AtomicLong sendStartedAt = new AtomicLong(IDLE);
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Queue<Set<DataWithMediaType>> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
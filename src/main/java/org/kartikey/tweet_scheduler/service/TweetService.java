@@ -1,16 +1,35 @@
 package org.kartikey.tweet_scheduler.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.kartikey.tweet_scheduler.dto.TweetCursor;
+import org.kartikey.tweet_scheduler.dto.TweetPage;
+import org.kartikey.tweet_scheduler.dto.TweetSummary;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
 import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetHistory;
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+import org.kartikey.tweet_scheduler.repository.TweetHistoryRepository;
 import org.kartikey.tweet_scheduler.repository.TweetRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -21,55 +40,214 @@ public class TweetService {
     @Autowired
     private TweetRepository tweetRepository;
 
+    @Autowired
+    private TweetHistoryRepository tweetHistoryRepository;
+
     @Autowired
     private TwitterService twitterService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReadyQueueIndex readyQueueIndex;
+
+    @Autowired
+    private TweetClaimService tweetClaimService;
+
+    @Autowired
+    private PostRetryQueue postRetryQueue;
+
+    @Autowired
+    private ContentHashIndex contentHashIndex;
+
+    @Autowired
+    private TweetCache tweetCache;
+
+    @Autowired
+    private TweetEventStream tweetEventStream;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public Tweet saveTweet(Tweet tweet) {
         log.debug("Saving tweet: {}", tweet.getText());
-        return tweetRepository.save(tweet);
+        TweetEvent.Type type = tweet.getId() == null ? TweetEvent.Type.CREATED : TweetEvent.Type.UPDATED;
+        if (tweet.getAccountId() != null && !twitterService.accountExists(tweet.getAccountId())) {
+            throw new IllegalArgumentException("Unknown Twitter account " + tweet.getAccountId());
+        }
+        String hash = tweet.getContentHash();
+        if (type == TweetEvent.Type.CREATED ? !contentHashIndex.reserve(hash) : contentHashIndex.isTakenByOther(hash, tweet.getId())) {
+            throw new DuplicateTweetException();
+        }
+
+        try {
+            // Loaded into this transaction's context anyway by the merge below
+            TweetEvent.Before before = type == TweetEvent.Type.UPDATED
+                    ? tweetRepository.findById(tweet.getId()).map(TweetEvent.Before::of).orElse(null)
+                    : null;
+            Tweet saved = tweetRepository.save(tweet);
+            // The reservation is released by ContentHashIndex once this transaction completes
+            eventPublisher.publishEvent(type == TweetEvent.Type.UPDATED
+                    ? TweetEvent.updated(saved, before)
+                    : TweetEvent.of(type, saved));
+            return saved;
+        } catch (RuntimeException e) {
+            contentHashIndex.release(hash);
+            throw e;
+        }
     }
 
+    // Callers are expected to have screened duplicates (see CsvImportService); the unique index backs that up
     public List<Tweet> saveAllTweets(List<Tweet> tweets) {
-        log.info("Saving {} tweets to database", tweets.size());
-        return tweetRepository.saveAll(tweets);
+        log.debug("Saving {} tweets to database", tweets.size());
+        List<Tweet> saved = tweetRepository.saveAll(tweets);
+        eventPublisher.publishEvent(new TweetEvent(TweetEvent.Type.CREATED, saved));
+        return saved;
     }
 
     public Optional<Tweet> getNextTweetToPost() {
-        return tweetRepository.findFirstByPostedFalseAndScheduledForIsNullOrScheduledForLessThanEqualOrderByPriorityDescCreatedAtAsc(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        OptionalLong next;
+        while ((next = readyQueueIndex.peek(now)).isPresent()) {
+            Optional<Tweet> tweet = tweetRepository.findById(next.getAsLong());
+            if (tweet.isPresent() && !tweet.get().isPosted()) {
+                return tweet;
+            }
+            // Changed behind the index's back (e.g. by another instance)
+            readyQueueIndex.remove(next.getAsLong());
+        }
+        return Optional.empty();
     }
 
-    public List<Tweet> getAllUnpostedTweets() {
-        return tweetRepository.findByPostedFalseOrderByPriorityDescCreatedAtAsc();
+    public List<TweetSummary> getAllUnpostedTweets() {
+        return tweetCache.view(TweetCache.View.UNPOSTED, tweetRepository::findUnpostedSummaries);
     }
 
     public long getUnpostedTweetCount() {
         return tweetRepository.countByPostedFalse();
     }
 
-    public List<Tweet> getScheduledTweets() {
-        return tweetRepository.findScheduledTweets(LocalDateTime.now());
+    public List<TweetSummary> getScheduledTweets() {
+        return tweetCache.view(TweetCache.View.SCHEDULED, () -> tweetRepository.findScheduledSummaries(LocalDateTime.now()));
     }
 
+    // Validator for the read endpoints; taken before the read, so a write racing it only costs a refetch
+    public String getVersionTag() {
+        return tweetCache.versionTag();
+    }
+
+    // Posting runs outside any transaction: claim, remote call and outcome are separate short steps
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Tweet postTweet(Tweet tweet) throws Exception {
         if (tweet.isPosted()) {
             throw new IllegalStateException("Tweet has already been posted");
         }
+        if (!tweetClaimService.claim(tweet.getId())) {
+            throw new IllegalStateException("Tweet is already being posted, waiting for a retry or dead-lettered");
+        }
+        tweetCache.evict(tweet.getId());
+        // The caller's copy may be stale (cached, or from before the claim); post what the row holds now
+        Tweet claimed = tweetRepository.findById(tweet.getId())
+                .orElseThrow(() -> new IllegalStateException("Tweet was deleted"));
+        return postClaimedTweet(claimed);
+    }
+
+    // Caller must hold the lease; the outcome (POSTED or FAILED) releases it
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Tweet postClaimedTweet(Tweet tweet) throws Exception {
+        String twitterId;
+        try {
+            twitterId = twitterService.postTweet(tweet.getAccountId(), tweet.getText());
+        } catch (Exception e) {
+            // The retry worker owns it from here; it is not claimable before retryAt
+            LocalDateTime retryAt = postRetryQueue.recordFailure(tweet, e);
+            tweetCache.evict(tweet.getId());
+            readyQueueIndex.remove(tweet.getId());
+            tweet.setStatus(retryAt != null ? TweetStatus.FAILED : TweetStatus.DEAD);
+            tweet.setLastError(e.getMessage());
+            tweet.setAttempts(PostRetryQueue.attemptsAfter(tweet.getAttempts(), e));
+            tweet.setNextAttemptAt(retryAt);
+            tweet.setLeaseOwner(null);
+            tweet.setLeaseExpiresAt(null);
+            tweetEventStream.publishFailed(tweet);
+            throw e;
+        }
 
-        String twitterId = twitterService.postTweet(tweet.getText());
+        LocalDateTime postedAt = LocalDateTime.now();
+        tweetClaimService.complete(tweet.getId(), twitterId, postedAt);
+        postRetryQueue.recordPosted(tweet);
 
+        tweet.setStatus(TweetStatus.POSTED);
         tweet.setPosted(true);
-        tweet.setPostedAt(LocalDateTime.now());
+        tweet.setPostedAt(postedAt);
         tweet.setTwitterId(twitterId);
+        tweet.setLastError(null);
+        tweet.setNextAttemptAt(null);
+        tweet.setLeaseOwner(null);
+        tweet.setLeaseExpiresAt(null);
 
-        Tweet savedTweet = tweetRepository.save(tweet);
+        eventPublisher.publishEvent(TweetEvent.of(TweetEvent.Type.POSTED, tweet));
         log.info("Successfully posted and saved tweet ID: {} (Twitter ID: {})",
-                savedTweet.getId(), twitterId);
+                tweet.getId(), twitterId);
 
-        return savedTweet;
+        return tweet;
     }
 
+    // Claims the next tweet so no other instance can pick it while it is being posted
+    public Optional<Tweet> claimNextTweet() {
+        LocalDateTime now = LocalDateTime.now();
+        OptionalLong next;
+        while ((next = readyQueueIndex.peek(now)).isPresent()) {
+            long id = next.getAsLong();
+            // Its account is throttled: let the database pick the best tweet of another account
+            if (getTweetById(id).map(tweet -> twitterService.isThrottled(tweet.getAccountId())).orElse(false)) {
+                break;
+            }
+            if (tweetClaimService.claim(id)) {
+                tweetCache.evict(id);
+                Optional<Tweet> tweet = tweetRepository.findById(id);
+                if (tweet.isPresent()) {
+                    return tweet;
+                }
+            }
+            // Posted, deleted or leased elsewhere
+            readyQueueIndex.remove(id);
+        }
+
+        // The local index only knows this instance's writes; let the database have the last word
+        List<Long> claimed = claimBatch(1);
+        tweetCache.evict(claimed);
+        return claimed.stream().findFirst().flatMap(tweetRepository::findById);
+    }
+
+    // Claims up to limit due tweets in one round trip, in posting order
+    public List<Tweet> claimNextTweets(int limit) {
+        return loadClaimed(claimBatch(limit));
+    }
+
+    // Claims up to limit failed tweets whose backoff has elapsed, for the retry worker.
+    // Throttled accounts are skipped here too, so their retries wait for the bucket to refill.
+    public List<Tweet> claimDueRetries(int limit) {
+        return loadClaimed(tweetClaimService.claimDueRetries(limit,
+                twitterService.getDefaultAccountId(), twitterService.getThrottledAccounts()));
+    }
+
+    private List<Tweet> loadClaimed(List<Long> ids) {
+        tweetCache.evict(ids);
+        Map<Long, Tweet> byId = new HashMap<>();
+        tweetRepository.findAllById(ids).forEach(tweet -> byId.put(tweet.getId(), tweet));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Tweets of throttled accounts are left for later so they do not take other accounts' turns
+    private List<Long> claimBatch(int limit) {
+        return tweetClaimService.claimBatch(limit, twitterService.getDefaultAccountId(), twitterService.getThrottledAccounts());
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<Tweet> postNextTweet() {
-        Optional<Tweet> nextTweet = getNextTweetToPost();
+        Optional<Tweet> nextTweet = claimNextTweet();
 
         if (nextTweet.isEmpty()) {
             log.info("No tweets available to post");
@@ -77,7 +255,7 @@ public class TweetService {
         }
 
         try {
-            Tweet postedTweet = postTweet(nextTweet.get());
+            Tweet postedTweet = postClaimedTweet(nextTweet.get());
             return Optional.of(postedTweet);
         } catch (Exception e) {
             log.error("Failed to post tweet ID: {}", nextTweet.get().getId(), e);
@@ -85,16 +263,115 @@ public class TweetService {
         }
     }
 
+    // Posts a tweet the timing wheel says is due; it may have been posted, deleted or rescheduled since
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Tweet> postDueTweet(Long id) {
+        Optional<Tweet> due = tweetRepository.findById(id)
+                .filter(tweet -> !tweet.isPosted())
+                .filter(tweet -> tweet.getScheduledFor() == null || !tweet.getScheduledFor().isAfter(LocalDateTime.now()));
+        if (due.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (!twitterService.isReady(due.get().getAccountId())) {
+            log.warn("Twitter service not ready. Tweet ID: {} stays queued for the next run", id);
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(postTweet(due.get()));
+        } catch (Exception e) {
+            log.error("Failed to post scheduled tweet ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Tweet> getDeadLetters() {
+        return tweetRepository.findByStatusOrderByIdAsc(TweetStatus.DEAD);
+    }
+
+    // Puts a dead-lettered tweet back in the queue with a fresh attempt budget
+    public Optional<Tweet> requeueTweet(Long id) {
+        return tweetRepository.findById(id)
+                .filter(tweet -> tweet.getStatus() == TweetStatus.DEAD)
+                .map(tweet -> {
+                    TweetEvent.Before before = TweetEvent.Before.of(tweet);
+                    tweet.setStatus(TweetStatus.PENDING);
+                    tweet.setAttempts(0);
+                    tweet.setNextAttemptAt(null);
+                    tweet.setLastError(null);
+                    postRetryQueue.recordRequeued();
+                    eventPublisher.publishEvent(TweetEvent.updated(tweet, before));
+                    log.info("Requeued dead-lettered tweet ID: {}", id);
+                    return tweet;
+                });
+    }
+
+    // Archived tweets plus posted ones still waiting to be archived, oldest first
+    @Transactional(readOnly = true)
+    public List<TweetHistory> getPostedTweets(LocalDateTime from, LocalDateTime to) {
+        List<TweetHistory> archived = tweetHistoryRepository.findByPostedAtBetweenOrderByPostedAtAsc(from, to);
+        List<TweetHistory> recent = tweetRepository.findByPostedTrueAndPostedAtBetween(from, to).stream()
+                .map(TweetHistory::of)
+                .toList();
+        return Stream.concat(archived.stream(), recent.stream())
+                .sorted(Comparator.comparing(TweetHistory::getPostedAt))
+                .toList();
+    }
+
+    // Posting quota usage: archived plus not yet archived
+    @Transactional(readOnly = true)
+    public long countPostedBetween(LocalDateTime from, LocalDateTime to) {
+        return tweetHistoryRepository.countByPostedAtBetween(from, to)
+                + tweetRepository.countByPostedTrueAndPostedAtBetween(from, to);
+    }
+
     public void deleteTweet(Long id) {
-        tweetRepository.deleteById(id);
-        log.info("Deleted tweet ID: {}", id);
+        tweetRepository.findById(id).ifPresent(tweet -> {
+            tweetRepository.delete(tweet);
+            eventPublisher.publishEvent(TweetEvent.of(TweetEvent.Type.DELETED, tweet));
+            log.info("Deleted tweet ID: {}", id);
+        });
     }
 
     public Optional<Tweet> getTweetById(Long id) {
-        return tweetRepository.findById(id);
+        return tweetCache.get(id, tweetRepository::findById);
     }
 
     public List<Tweet> getAllTweets() {
         return tweetRepository.findAll();
     }
+
+    @Transactional(readOnly = true)
+    public TweetPage getTweetPage(String cursor, int limit, boolean unpostedOnly) {
+        // Fetch one extra row to know whether another page exists
+        Limit fetch = Limit.of(limit + 1);
+        List<TweetSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = unpostedOnly ? tweetRepository.findFirstUnpostedPage(fetch) : tweetRepository.findFirstPage(fetch);
+        } else {
+            TweetCursor after = TweetCursor.decode(cursor);
+            rows = unpostedOnly
+                    ? tweetRepository.findUnpostedPageAfter(after.priority(), after.createdAt(), after.id(), fetch)
+                    : tweetRepository.findPageAfter(after.priority(), after.createdAt(), after.id(), fetch);
+        }
+
+        if (rows.size() <= limit) {
+            return new TweetPage(rows, null);
+        }
+        List<TweetSummary> items = rows.subList(0, limit);
+        return new TweetPage(items, TweetCursor.of(items.get(limit - 1)).encode());
+    }
+
+    // Detach each row once handed off so the persistence context stays empty
+    @Transactional(readOnly = true)
+    public void streamTweets(boolean unpostedOnly, Consumer<Tweet> consumer) {
+        try (Stream<Tweet> tweets = unpostedOnly ? tweetRepository.streamUnposted() : tweetRepository.streamAll()) {
+            tweets.forEach(tweet -> {
+                consumer.accept(tweet);
+                entityManager.detach(tweet);
+            });
+        }
+    }
 }
@@ -0,0 +1,141 @@
+package org.kartikey.tweet_scheduler.service;
+
+import jakarta.annotation.PostConstruct;
+import org.kartikey.tweet_scheduler.dto.TweetStats;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.repository.TweetHistoryRepository;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class TweetStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetStatsService.class);
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private TweetHistoryRepository tweetHistoryRepository;
+
+    private final AtomicReference<TweetStats> snapshot = new AtomicReference<>(TweetStats.EMPTY);
+
+    // One per reconcile in progress: the deltas applied since its query began, guarded by this
+    private final List<DeltaWindow> openWindows = new ArrayList<>();
+
+    // Rows in tweet_history. Bumped by TweetArchiver so reconcile never counts the archive,
+    // and re-counted on a slow schedule to pick up other instances' archiving.
+    private final AtomicLong archived = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        recountArchived();
+        reconcile();
+    }
+
+    public TweetStats getStats() {
+        return snapshot.get();
+    }
+
+    // Archiving moves posted rows from tweets to tweet_history, so the totals themselves do not change
+    public void onArchived(long count) {
+        archived.addAndGet(count);
+    }
+
+    @Scheduled(fixedDelayString = "${tweets.stats.archive-recount-ms:3600000}",
+            initialDelayString = "${tweets.stats.archive-recount-ms:3600000}")
+    public void recountArchived() {
+        archived.set(tweetHistoryRepository.count());
+    }
+
+    // Scheduled tweets become due without any write, so the counters are periodically re-based on the DB
+    @Scheduled(fixedDelayString = "${tweets.stats.reconcile-interval-ms:60000}",
+            initialDelayString = "${tweets.stats.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        DeltaWindow window = new DeltaWindow();
+        synchronized (this) {
+            openWindows.add(window);
+        }
+        try {
+            // Archived tweets are all posted
+            TweetStats fresh = tweetRepository.aggregateStats(LocalDateTime.now());
+            long archivedNow = archived.get();
+            fresh = fresh.plus(archivedNow, archivedNow, 0, 0);
+
+            // Writes that landed while querying are replayed on top rather than lost, so a steady write
+            // rate cannot keep the correction from applying. A write committed just before the query but
+            // announced after it began is counted twice until the next reconcile.
+            synchronized (this) {
+                TweetStats rebased = fresh.plus(window.delta);
+                TweetStats previous = snapshot.getAndSet(rebased);
+                if (!previous.equals(rebased)) {
+                    log.debug("Reconciled tweet stats {} -> {}", previous, rebased);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                openWindows.remove(window);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetEvent(TweetEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        TweetStats delta = TweetStats.EMPTY;
+        for (int i = 0; i < event.tweets().size(); i++) {
+            Tweet tweet = event.tweets().get(i);
+            long scheduled = !tweet.isPosted() && tweet.getScheduledFor() != null
+                    && tweet.getScheduledFor().isAfter(now) ? 1 : 0;
+            delta = switch (event.type()) {
+                case CREATED -> tweet.isPosted()
+                        ? delta.plus(1, 1, 0, 0)
+                        : delta.plus(1, 0, 1, scheduled);
+                // Already flipped to posted, so count it as having left the scheduled bucket if it was early
+                case POSTED -> delta.plus(0, 1, -1,
+                        tweet.getScheduledFor() != null && tweet.getScheduledFor().isAfter(now) ? -1 : 0);
+                case DELETED -> tweet.isPosted()
+                        ? delta.plus(-1, -1, 0, 0)
+                        : delta.plus(-1, 0, -1, -scheduled);
+                // Take the old row out and put the new one in; without the old row it is counted as new
+                case UPDATED -> {
+                    TweetEvent.Before before = event.before(i);
+                    TweetStats added = tweet.isPosted() ? delta.plus(1, 1, 0, 0) : delta.plus(1, 0, 1, scheduled);
+                    if (before == null) {
+                        yield added;
+                    }
+                    long wasScheduled = !before.posted() && before.scheduledFor() != null
+                            && before.scheduledFor().isAfter(now) ? 1 : 0;
+                    yield before.posted()
+                            ? added.plus(-1, -1, 0, 0)
+                            : added.plus(-1, 0, -1, -wasScheduled);
+                }
+            };
+        }
+        if (delta.equals(TweetStats.EMPTY)) {
+            return;
+        }
+        synchronized (this) {
+            snapshot.set(snapshot.get().plus(delta));
+            for (DeltaWindow window : openWindows) {
+                window.delta = window.delta.plus(delta);
+            }
+        }
+    }
+
+    private static final class DeltaWindow {
+        private TweetStats delta = TweetStats.EMPTY;
+    }
+}
@@ -0,0 +1,74 @@
+package org.kartikey.tweet_scheduler.service;
+
+import com.twitter.clientlib.ApiClient;
+import com.twitter.clientlib.TwitterCredentialsOAuth2;
+import com.twitter.clientlib.api.TwitterApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The one outbound transport for Twitter: a single OkHttp client (connection pool, HTTP/2,
+// keep-alive, timeouts) shared by the SDK and the token endpoint, so credential changes
+// no longer throw away warm connections and TLS sessions. The base URL can point at a stub.
+@Component
+public class TwitterHttpTransport {
+
+    private final String baseUrl;
+    private final OkHttpClient httpClient;
+    private final OutboundHttpMetrics metrics;
+
+    public TwitterHttpTransport(@Value("${twitter.api.base-url:https://api.twitter.com}") String baseUrl,
+                                @Value("${twitter.http.max-idle-connections:5}") int maxIdleConnections,
+                                @Value("${twitter.http.keep-alive-ms:300000}") long keepAliveMs,
+                                @Value("${twitter.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+                                @Value("${twitter.http.read-timeout-ms:15000}") long readTimeoutMs,
+                                @Value("${twitter.http.call-timeout-ms:30000}") long callTimeoutMs,
+                                MeterRegistry meterRegistry) {
+        this.metrics = new OutboundHttpMetrics(meterRegistry);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMs, TimeUnit.MILLISECONDS))
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
+                .callTimeout(Duration.ofMillis(callTimeoutMs))
+                .eventListenerFactory(metrics)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    // ApiClient is cheap; the OkHttp client underneath (and its pool) is shared
+    public TwitterApi newApi(TwitterCredentialsOAuth2 credentials) {
+        ApiClient apiClient = new ApiClient(httpClient);
+        apiClient.setTwitterCredentials(credentials);
+        TwitterApi api = new TwitterApi(apiClient);
+        // TwitterApi resets the base path (from TWITTER_API_BASE_PATH or its default) when constructed
+        apiClient.setBasePath(baseUrl);
+        return api;
+    }
+
+    public OkHttpClient httpClient() {
+        return httpClient;
+    }
+
+    public String tokenUrl() {
+        return baseUrl + "/2/oauth2/token";
+    }
+
+    public OutboundHttpMetrics metrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,133 @@
+package org.kartikey.tweet_scheduler.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-endpoint token buckets mirroring Twitter's fixed rate-limit windows. Buckets start from
+// configured defaults and are corrected by the x-rate-limit-* headers on every response, so
+// requests are held back before Twitter has to reject them.
+@Component
+public class TwitterRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(TwitterRateLimiter.class);
+
+    static final String LIMIT_HEADER = "x-rate-limit-limit";
+    static final String REMAINING_HEADER = "x-rate-limit-remaining";
+    static final String RESET_HEADER = "x-rate-limit-reset";
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final int defaultLimit;
+    private final long defaultWindowMs;
+
+    public TwitterRateLimiter(@Value("${twitter.rate-limit.default-limit:100}") int defaultLimit,
+                              @Value("${twitter.rate-limit.default-window-ms:900000}") long defaultWindowMs) {
+        this.defaultLimit = defaultLimit;
+        this.defaultWindowMs = defaultWindowMs;
+    }
+
+    // Takes a token, or returns how many ms to wait before one is available
+    public long tryAcquire(String endpoint) {
+        return bucket(endpoint).tryAcquire(System.currentTimeMillis());
+    }
+
+    public void update(String endpoint, Map<String, List<String>> headers) {
+        Long limit = header(headers, LIMIT_HEADER);
+        Long remaining = header(headers, REMAINING_HEADER);
+        Long reset = header(headers, RESET_HEADER);
+        if (remaining != null && reset != null) {
+            bucket(endpoint).update(limit, remaining, reset * 1000, System.currentTimeMillis());
+        }
+    }
+
+    // Twitter said no: drain the bucket until the reset it reported (or a full default window)
+    public long onThrottled(String endpoint, Map<String, List<String>> headers) {
+        update(endpoint, headers);
+        Long reset = header(headers, RESET_HEADER);
+        long now = System.currentTimeMillis();
+        long resetAt = reset != null ? reset * 1000 : now + defaultWindowMs;
+        bucket(endpoint).exhaust(resetAt);
+        log.warn("Rate limit hit on {}, throttled until {}", endpoint, Instant.ofEpochMilli(resetAt));
+        return Math.max(resetAt - now, 0);
+    }
+
+    public int remaining(String endpoint) {
+        return bucket(endpoint).remaining(System.currentTimeMillis());
+    }
+
+    private TokenBucket bucket(String endpoint) {
+        return buckets.computeIfAbsent(endpoint, key -> new TokenBucket(defaultLimit, defaultWindowMs));
+    }
+
+    private static Long header(Map<String, List<String>> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                try {
+                    return Long.parseLong(entry.getValue().get(0).trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    static final class TokenBucket {
+
+        private final long windowMs;
+        private long capacity;
+        private long tokens;
+        private long resetAt;
+
+        TokenBucket(long capacity, long windowMs) {
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.windowMs = windowMs;
+            this.resetAt = 0;
+        }
+
+        synchronized long tryAcquire(long now) {
+            refill(now);
+            if (tokens > 0) {
+                tokens--;
+                return 0;
+            }
+            return Math.max(resetAt - now, 1);
+        }
+
+        synchronized void update(Long limit, long remaining, long resetAtMs, long now) {
+            if (limit != null) {
+                capacity = limit;
+            }
+            resetAt = resetAtMs;
+            // Other requests may be in flight since this response was produced; never hand back tokens
+            tokens = resetAtMs > now ? Math.min(tokens, remaining) : capacity;
+        }
+
+        synchronized void exhaust(long resetAtMs) {
+            tokens = 0;
+            resetAt = Math.max(resetAt, resetAtMs);
+        }
+
+        synchronized int remaining(long now) {
+            refill(now);
+            return (int) tokens;
+        }
+
+        private void refill(long now) {
+            if (now >= resetAt) {
+                tokens = capacity;
+                resetAt = now + windowMs;
+            }
+        }
+    }
+}
@@ -1,51 +1,119 @@
 package org.kartikey.tweet_scheduler.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.twitter.clientlib.ApiException;
+import com.twitter.clientlib.ApiResponse;
 import com.twitter.clientlib.TwitterCredentialsOAuth2;
 import com.twitter.clientlib.api.TwitterApi;
 import com.twitter.clientlib.model.TweetCreateRequest;
 import com.twitter.clientlib.model.TweetCreateResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.FormBody;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.kartikey.tweet_scheduler.model.TwitterToken;
 import org.kartikey.tweet_scheduler.repository.TwitterTokenRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class TwitterService {
 
     private static final Logger log = LoggerFactory.getLogger(TwitterService.class);
 
+    static final String CREATE_TWEET_ENDPOINT = "POST /2/tweets";
+
     @Value("${TWITTER_OAUTH2_CLIENT_ID}")
     private String clientId;
 
     @Value("${TWITTER_OAUTH2_CLIENT_SECRET}")
     private String clientSecret;
 
+    @Value("${TWITTER_OAUTH2_ACCESS_TOKEN:}")
+    private String initialAccessToken;
+
+    @Value("${TWITTER_OAUTH2_REFRESH_TOKEN:}")
+    private String initialRefreshToken;
+
+    // Name given to the account seeded from the env tokens
+    @Value("${twitter.default-account-name:default}")
+    private String defaultAccountName;
+
+    // Renew this long before expiry so callers never wait on a refresh in the common case
+    @Value("${twitter.token.refresh-margin-ms:300000}")
+    private long refreshMarginMs;
+
     private final TwitterTokenRepository tokenRepository;
+    private final TwitterRateLimiter rateLimiter;
+    private final TwitterHttpTransport transport;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    // One lane per account, created on first use; accounts share nothing but the HTTP client
+    private final Map<Long, AccountLane> lanes = new ConcurrentHashMap<>();
+
+    // Posts for tweets without an account go here: the lowest twitter_tokens id
+    private volatile Long defaultAccountId;
+
+    // Immutable snapshot swapped atomically on refresh, so readers never take a lock
+    private record Credentials(String accessToken, String refreshToken, long expiryTime, TwitterApi api) {
+
+        boolean isExpired(long now) {
+            return now >= expiryTime;
+        }
+    }
 
-    private TwitterApi apiInstance;
-    private AtomicLong tokenExpiryTime = new AtomicLong(0);
+    // An account's credentials, its single-flight refresh (concurrent callers near expiry all wait
+    // on the same refresh) and its rate-limit bucket, so one throttled or expiring account never
+    // holds up another
+    private static final class AccountLane {
 
-    private String accessToken;
-    private String refreshToken;
+        private final long id;
+        private final String name;
+        private final String rateLimitKey;
+        private final AtomicReference<Credentials> credentials;
+        private final AtomicReference<CompletableFuture<Credentials>> refreshInFlight = new AtomicReference<>();
+
+        private AccountLane(long id, String name, Credentials credentials) {
+            this.id = id;
+            this.name = name;
+            this.rateLimitKey = CREATE_TWEET_ENDPOINT + " @" + id;
+            this.credentials = new AtomicReference<>(credentials);
+        }
+    }
 
     @Autowired
-    public TwitterService(TwitterTokenRepository tokenRepository) {
+    public TwitterService(TwitterTokenRepository tokenRepository, TwitterRateLimiter rateLimiter,
+                          TwitterHttpTransport transport, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.tokenRepository = tokenRepository;
+        this.rateLimiter = rateLimiter;
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
@@ -53,118 +121,325 @@ public class TwitterService {
         log.info("Initializing TwitterService...");
         loadTokensFromDbOrEnv();
         if (isConfigured()) {
-            initApi();
-            log.info("Twitter API initialized successfully");
+            log.info("Twitter API initialized successfully with {} account(s)", lanes.size());
         } else {
             log.warn("Twitter credentials not configured.");
         }
     }
 
     private void loadTokensFromDbOrEnv() {
-        var tokens = tokenRepository.findAll();
+        List<TwitterToken> tokens = tokenRepository.findAll(Sort.by("id"));
         if (!tokens.isEmpty()) {
-            var t = tokens.get(0);
-            this.accessToken = t.getAccessToken();
-            this.refreshToken = t.getRefreshToken();
-            tokenExpiryTime.set(t.getExpiryTime());
-            log.info("Loaded Twitter tokens from DB");
-        } else {
-            this.accessToken = System.getenv("TWITTER_OAUTH2_ACCESS_TOKEN");
-            this.refreshToken = System.getenv("TWITTER_OAUTH2_REFRESH_TOKEN");
-            tokenExpiryTime.set(System.currentTimeMillis() + (60 * 60 * 1000));
+            log.info("Loaded {} Twitter account(s) from DB", tokens.size());
+        } else if (hasText(initialAccessToken) && hasText(initialRefreshToken)) {
+            // Env vars seed the default account; from then on the DB row is the source of truth
+            TwitterToken seed = new TwitterToken();
+            seed.setName(defaultAccountName);
+            seed.setAccessToken(initialAccessToken);
+            seed.setRefreshToken(initialRefreshToken);
+            seed.setExpiryTime(System.currentTimeMillis() + (60 * 60 * 1000));
+            tokens = List.of(tokenRepository.save(seed));
             log.info("Loaded Twitter tokens from env vars");
         }
+
+        tokens.forEach(token -> lanes.put(token.getId(), newLane(token)));
+        defaultAccountId = tokens.isEmpty() ? null : tokens.get(0).getId();
     }
 
     private boolean isConfigured() {
-        return clientId != null && !clientId.isEmpty() &&
-                accessToken != null && !accessToken.isEmpty() &&
-                refreshToken != null && !refreshToken.isEmpty();
+        return hasText(clientId) && defaultAccountId != null;
     }
 
-    private void initApi() {
+    private AccountLane newLane(TwitterToken token) {
+        Credentials credentials = new Credentials(token.getAccessToken(), token.getRefreshToken(),
+                token.getExpiryTime(), initApi(token.getAccessToken(), token.getRefreshToken()));
+        return new AccountLane(token.getId(), token.getName(), credentials);
+    }
+
+    private TwitterApi initApi(String accessToken, String refreshToken) {
         TwitterCredentialsOAuth2 creds = new TwitterCredentialsOAuth2(
                 clientId, clientSecret, accessToken, refreshToken
         );
-        this.apiInstance = new TwitterApi(creds);
+        return transport.newApi(creds);
     }
-    public synchronized void ensureTokenValid() throws IOException, InterruptedException {
-        if (!isConfigured()) {
-            throw new IOException("Twitter credentials not configured");
+
+    public TwitterToken addAccount(String name, String accessToken, String refreshToken, long expiresInSeconds) {
+        if (tokenRepository.existsByName(name)) {
+            throw new IllegalArgumentException("Account " + name + " already exists");
+        }
+        TwitterToken token = new TwitterToken();
+        token.setName(name);
+        token.setAccessToken(accessToken);
+        token.setRefreshToken(refreshToken);
+        token.setExpiryTime(System.currentTimeMillis() + expiresInSeconds * 1000);
+        token = tokenRepository.save(token);
+
+        lanes.put(token.getId(), newLane(token));
+        synchronized (this) {
+            if (defaultAccountId == null) {
+                defaultAccountId = token.getId();
+            }
         }
+        log.info("Added Twitter account {} (ID: {})", name, token.getId());
+        return token;
+    }
+
+    public List<Map<String, Object>> getAccounts() {
         long now = System.currentTimeMillis();
-        if (now >= tokenExpiryTime.get()) {
-            refreshAccessToken();
-        } else if (apiInstance == null) {
-            initApi();
+        return lanes.values().stream()
+                .sorted(Comparator.comparingLong(lane -> lane.id))
+                .map(lane -> Map.<String, Object>of(
+                        "id", lane.id,
+                        "name", lane.name,
+                        "default", Objects.equals(lane.id, defaultAccountId),
+                        "tokenExpiresAt", Instant.ofEpochMilli(lane.credentials.get().expiryTime()),
+                        "tokenExpired", lane.credentials.get().isExpired(now),
+                        "rateLimitRemaining", rateLimiter.remaining(lane.rateLimitKey)))
+                .toList();
+    }
+
+    public Long getDefaultAccountId() {
+        return defaultAccountId;
+    }
+
+    public boolean accountExists(Long accountId) {
+        return lanes.containsKey(accountId) || tokenRepository.existsById(accountId);
+    }
+
+    // Accounts whose bucket is empty until the next reset; claiming skips their tweets
+    public Set<Long> getThrottledAccounts() {
+        Set<Long> throttled = new HashSet<>();
+        lanes.values().forEach(lane -> {
+            if (rateLimiter.remaining(lane.rateLimitKey) == 0) {
+                throttled.add(lane.id);
+            }
+        });
+        return throttled;
+    }
+
+    public boolean isThrottled(Long accountId) {
+        AccountLane lane = lanes.get(accountId != null ? accountId : Objects.requireNonNullElse(defaultAccountId, -1L));
+        return lane != null && rateLimiter.remaining(lane.rateLimitKey) == 0;
+    }
+
+    private AccountLane lane(Long accountId) throws IOException {
+        Long id = accountId != null ? accountId : defaultAccountId;
+        if (id == null || !hasText(clientId)) {
+            throw new IOException("Twitter credentials not configured");
+        }
+        // Accounts added by another instance are picked up from the DB on first use
+        AccountLane lane = lanes.computeIfAbsent(id, key -> tokenRepository.findById(key).map(this::newLane).orElse(null));
+        if (lane == null) {
+            throw new IOException("Unknown Twitter account " + id);
         }
+        return lane;
     }
 
-    private void refreshAccessToken() throws IOException, InterruptedException {
-        log.info("Refreshing Twitter access token...");
+    public void ensureTokenValid() throws IOException, InterruptedException {
+        validCredentials(lane(null));
+    }
 
-        String form = "grant_type=refresh_token" +
-                "&refresh_token=" + URLEncoder.encode(refreshToken, StandardCharsets.UTF_8) +
-                "&client_id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8);
+    // Lock-free on the hot path; only an expired token makes the caller wait (on the shared refresh)
+    private Credentials validCredentials(AccountLane lane) throws IOException, InterruptedException {
+        Credentials current = lane.credentials.get();
+        if (!current.isExpired(System.currentTimeMillis())) {
+            return current;
+        }
+        return refreshShared(lane, current);
+    }
+
+    // Proactive renewal ahead of expiry, off the posting path
+    @Scheduled(fixedDelayString = "${twitter.token.refresh-check-ms:60000}")
+    public void refreshIfExpiring() {
+        if (!hasText(clientId)) {
+            return;
+        }
+        for (AccountLane lane : lanes.values()) {
+            Credentials current = lane.credentials.get();
+            if (current.expiryTime() - System.currentTimeMillis() > refreshMarginMs) {
+                continue;
+            }
+            try {
+                refreshShared(lane, current);
+            } catch (IOException e) {
+                log.error("Background token refresh for account {} failed, will retry", lane.name, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Credentials refreshShared(AccountLane lane, Credentials stale) throws IOException, InterruptedException {
+        CompletableFuture<Credentials> mine = new CompletableFuture<>();
+        CompletableFuture<Credentials> inFlight = lane.refreshInFlight.compareAndExchange(null, mine);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            // Someone may have finished a refresh between our read and winning the flight
+            Credentials latest = lane.credentials.get();
+            Credentials fresh = latest != stale ? latest : refreshAccessToken(lane, stale);
+            mine.complete(fresh);
+            return fresh;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            lane.refreshInFlight.set(null);
+        }
+    }
+
+    private Credentials await(CompletableFuture<Credentials> refresh) throws IOException, InterruptedException {
+        try {
+            return refresh.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Token refresh failed", e.getCause());
+        }
+    }
+
+    private Credentials refreshAccessToken(AccountLane lane, Credentials current) throws IOException, InterruptedException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            Credentials fresh = requestAccessToken(lane, current);
+            outcome = "success";
+            return fresh;
+        } finally {
+            sample.stop(meterRegistry.timer("twitter.token.refresh", "outcome", outcome));
+        }
+    }
+
+    private Credentials requestAccessToken(AccountLane lane, Credentials current) throws IOException {
+        log.info("Refreshing Twitter access token for account {}...", lane.name);
+
+        FormBody form = new FormBody.Builder()
+                .add("grant_type", "refresh_token")
+                .add("refresh_token", current.refreshToken())
+                .add("client_id", clientId)
+                .build();
 
         String basicAuth = Base64.getEncoder()
                 .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.twitter.com/2/oauth2/token"))
-                .header("Content-Type", "application/x-www-form-urlencoded")
+        Request request = new Request.Builder()
+                .url(transport.tokenUrl())
                 .header("Authorization", "Basic " + basicAuth)
-                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .post(form)
                 .build();
 
-        HttpClient client = HttpClient.newHttpClient();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        int status;
+        String body;
+        try (Response response = transport.httpClient().newCall(request).execute()) {
+            ResponseBody responseBody = response.body();
+            status = response.code();
+            body = responseBody != null ? responseBody.string() : "";
+        }
 
-        if (response.statusCode() == 200) {
-            var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            var json = mapper.readTree(response.body());
+        if (status == 200) {
+            var json = objectMapper.readTree(body);
 
-            accessToken = json.get("access_token").asText();
-            if (json.has("refresh_token")) {
-                refreshToken = json.get("refresh_token").asText();
-            }
+            String accessToken = json.get("access_token").asText();
+            String refreshToken = json.has("refresh_token") ? json.get("refresh_token").asText() : current.refreshToken();
             int expiresIn = json.get("expires_in").asInt();
-            tokenExpiryTime.set(System.currentTimeMillis() + (expiresIn * 1000L));
+            long expiryTime = System.currentTimeMillis() + (expiresIn * 1000L);
 
             // Save to DB
-            var tokenEntity = tokenRepository.findAll().stream().findFirst().orElse(new TwitterToken());
+            var tokenEntity = tokenRepository.findById(lane.id)
+                    .orElseThrow(() -> new IOException("Twitter account " + lane.id + " was removed"));
             tokenEntity.setAccessToken(accessToken);
             tokenEntity.setRefreshToken(refreshToken);
-            tokenEntity.setExpiryTime(tokenExpiryTime.get());
+            tokenEntity.setExpiryTime(expiryTime);
+            tokenEntity.setUpdatedAt(Instant.now());
             tokenRepository.save(tokenEntity);
 
-            log.info("Access token refreshed and saved to DB. Expires in {} seconds", expiresIn);
-            initApi();
+            Credentials fresh = new Credentials(accessToken, refreshToken, expiryTime, initApi(accessToken, refreshToken));
+            lane.credentials.set(fresh);
+            log.info("Access token for account {} refreshed and saved to DB. Expires in {} seconds", lane.name, expiresIn);
+            return fresh;
         } else {
-            log.error("Failed to refresh token. Status: {} Response: {}", response.statusCode(), response.body());
-            throw new IOException("Token refresh failed with status " + response.statusCode());
+            log.error("Failed to refresh token for account {}. Status: {} Response: {}", lane.name, status, body);
+            throw new IOException("Token refresh failed with status " + status);
         }
     }
 
-    public String postTweet(String text) throws Exception {
-        ensureTokenValid();
+    // Never blocks on rate limits: throws RateLimitedException so the caller can queue a retry.
+    // A null accountId posts from the default account.
+    public String postTweet(Long accountId, String text) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            String twitterId = postWithValidToken(lane(accountId), text);
+            outcome = "success";
+            return twitterId;
+        } catch (RateLimitedException e) {
+            outcome = "rate_limited";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("twitter.post", "outcome", outcome));
+        }
+    }
+
+    private String postWithValidToken(AccountLane lane, String text) throws Exception {
+        Credentials creds = validCredentials(lane);
+
+        long waitMs = rateLimiter.tryAcquire(lane.rateLimitKey);
+        if (waitMs > 0) {
+            throw rateLimited("limiter", waitMs, null);
+        }
+
+        try {
+            return createTweet(lane, creds, text);
+        } catch (ApiException e) {
+            if (e.getCode() != 401) {
+                throw e;
+            }
+            // Token revoked or expired before we expected: refresh once and retry
+            log.warn("Twitter rejected the access token of account {}, refreshing and retrying", lane.name);
+            return createTweet(lane, refreshShared(lane, creds), text);
+        }
+    }
+
+    private String createTweet(AccountLane lane, Credentials creds, String text) throws Exception {
         try {
             TweetCreateRequest req = new TweetCreateRequest();
             req.setText(text);
-            TweetCreateResponse res = apiInstance.tweets().createTweet(req).execute();
-            return res.getData().getId();
+            ApiResponse<TweetCreateResponse> res = creds.api().tweets().createTweet(req).executeWithHttpInfo();
+            rateLimiter.update(lane.rateLimitKey, res.getHeaders());
+            return res.getData().getData().getId();
         } catch (ApiException e) {
             if (e.getCode() == 429) {
-                log.warn("Rate limit hit. Sleeping for 60 seconds before retry...");
-                Thread.sleep(60000); // or use x-rate-limit-reset from headers
-                return postTweet(text); // retry once
+                long retryAfter = rateLimiter.onThrottled(lane.rateLimitKey, e.getResponseHeaders());
+                throw rateLimited("twitter", retryAfter, e);
             }
+            rateLimiter.update(lane.rateLimitKey, e.getResponseHeaders());
             throw e;
         }
     }
 
+    // Counts the hit and records how long the post is deferred (what used to be spent sleeping)
+    private RateLimitedException rateLimited(String source, long retryAfterMs, ApiException cause) {
+        Duration retryAfter = Duration.ofMillis(retryAfterMs);
+        meterRegistry.counter("twitter.rate_limit.hits", "source", source).increment();
+        meterRegistry.timer("twitter.rate_limit.wait", "source", source).record(retryAfter);
+        return cause == null
+                ? new RateLimitedException(CREATE_TWEET_ENDPOINT, retryAfter)
+                : new RateLimitedException(CREATE_TWEET_ENDPOINT, retryAfter, cause);
+    }
 
     public boolean isReady() {
-        return isConfigured() && apiInstance != null;
+        return isConfigured();
+    }
+
+    public boolean isReady(Long accountId) {
+        return accountId == null ? isConfigured() : hasText(clientId) && accountExists(accountId);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
     }
 }
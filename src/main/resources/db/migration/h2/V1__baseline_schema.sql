@@ -0,0 +1,51 @@
+-- Schema as previously produced by ddl-auto=update. Everything is IF NOT EXISTS so this also
+-- applies cleanly to databases created that way (baselined at version 0 on first migrate).
+
+CREATE SEQUENCE IF NOT EXISTS tweets_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tweets (
+    id            BIGINT       NOT NULL,
+    text          VARCHAR(280) NOT NULL,
+    is_posted     BOOLEAN      NOT NULL,
+    posted_at     TIMESTAMP(6),
+    created_at    TIMESTAMP(6) NOT NULL,
+    scheduled_for TIMESTAMP(6),
+    twitter_id    VARCHAR(255),
+    priority      INTEGER,
+    PRIMARY KEY (id)
+);
+
+-- Added to the entity after the table first shipped
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS status ENUM('FAILED', 'IN_FLIGHT', 'PENDING', 'POSTED');
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS last_error VARCHAR(500);
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(100);
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP(6);
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_tweets_content_hash ON tweets (content_hash);
+
+CREATE TABLE IF NOT EXISTS twitter_tokens (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    access_token  VARCHAR(500)                NOT NULL,
+    refresh_token VARCHAR(500)                NOT NULL,
+    expiry_time   BIGINT                      NOT NULL,
+    updated_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Plain table on H2; partitioned by posted_at on Postgres
+CREATE TABLE IF NOT EXISTS tweet_history (
+    id            BIGINT       NOT NULL,
+    text          VARCHAR(280) NOT NULL,
+    priority      INTEGER,
+    created_at    TIMESTAMP(6) NOT NULL,
+    scheduled_for TIMESTAMP(6),
+    posted_at     TIMESTAMP(6) NOT NULL,
+    twitter_id    VARCHAR(255),
+    content_hash  VARCHAR(64),
+    archived_at   TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tweet_history_posted_at ON tweet_history (posted_at);
+CREATE INDEX IF NOT EXISTS idx_tweet_history_content_hash ON tweet_history (content_hash);
@@ -0,0 +1,10 @@
+-- H2 has no partial indexes (see the Postgres migration for the intended shape). It also only
+-- skips the sort when the index matches ORDER BY exactly, so these index all rows.
+
+CREATE INDEX IF NOT EXISTS idx_tweets_pending_order
+    ON tweets (priority DESC, created_at ASC, id ASC);
+
+CREATE INDEX IF NOT EXISTS idx_tweets_pending_scheduled
+    ON tweets (scheduled_for);
+
+CREATE INDEX IF NOT EXISTS idx_tweets_posted_at ON tweets (posted_at);
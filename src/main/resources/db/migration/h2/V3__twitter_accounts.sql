@@ -0,0 +1,13 @@
+-- Each twitter_tokens row is one Twitter account; tweets name the account they post from.
+-- A NULL account_id means the default account (the lowest id), as before accounts existed.
+
+ALTER TABLE twitter_tokens ADD COLUMN IF NOT EXISTS name VARCHAR(100);
+UPDATE twitter_tokens SET name = 'account-' || id WHERE name IS NULL;
+ALTER TABLE twitter_tokens ALTER COLUMN name SET NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_twitter_tokens_name ON twitter_tokens (name);
+
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS account_id BIGINT;
+ALTER TABLE tweets ADD CONSTRAINT fk_tweets_account FOREIGN KEY (account_id) REFERENCES twitter_tokens (id);
+CREATE INDEX IF NOT EXISTS idx_tweets_account ON tweets (account_id);
+
+ALTER TABLE tweet_history ADD COLUMN IF NOT EXISTS account_id BIGINT;
@@ -0,0 +1,10 @@
+-- Durable retry state for failed posts, kept on the tweet row next to its lease.
+-- DEAD is the dead letter: failed permanently or out of attempts, never claimed again until requeued.
+
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP(6);
+
+ALTER TABLE tweets ALTER COLUMN status ENUM('DEAD', 'FAILED', 'IN_FLIGHT', 'PENDING', 'POSTED');
+
+-- The retry worker's due scan
+CREATE INDEX IF NOT EXISTS idx_tweets_retry_due ON tweets (next_attempt_at);
@@ -0,0 +1,12 @@
+-- Pending rows only, so the indexes stay the size of the working set however many tweets are posted.
+
+-- findNextTweetToPost, the unposted listing/keyset pages and lease claiming: walk in posting order
+CREATE INDEX IF NOT EXISTS idx_tweets_pending_order
+    ON tweets (priority DESC, created_at ASC, id ASC) WHERE is_posted = false;
+
+-- findScheduledTweets and the due check
+CREATE INDEX IF NOT EXISTS idx_tweets_pending_scheduled
+    ON tweets (scheduled_for) WHERE is_posted = false;
+
+-- Posted-in-range queries and the archiver's cutoff scan
+CREATE INDEX IF NOT EXISTS idx_tweets_posted_at ON tweets (posted_at);
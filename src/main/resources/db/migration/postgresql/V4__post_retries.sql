@@ -0,0 +1,13 @@
+-- Durable retry state for failed posts, kept on the tweet row next to its lease.
+-- DEAD is the dead letter: failed permanently or out of attempts, never claimed again until requeued.
+
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE tweets ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP(6);
+
+ALTER TABLE tweets DROP CONSTRAINT IF EXISTS tweets_status_check;
+ALTER TABLE tweets ADD CONSTRAINT tweets_status_check
+    CHECK (status IN ('PENDING', 'IN_FLIGHT', 'POSTED', 'FAILED', 'DEAD'));
+
+-- The retry worker's due scan
+CREATE INDEX IF NOT EXISTS idx_tweets_retry_due
+    ON tweets (next_attempt_at) WHERE status = 'FAILED';
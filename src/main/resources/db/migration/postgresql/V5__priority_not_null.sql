@@ -0,0 +1,7 @@
+-- priority was nullable in the original schema; only rows inserted since @PrePersist defaulted it are
+-- guaranteed a value. Keyset cursors and the ready-queue index read it as a plain int, and the
+-- "priority < :priority" predicates skip NULLs, so legacy rows get the entity default of 0.
+
+UPDATE tweets SET priority = 0 WHERE priority IS NULL;
+ALTER TABLE tweets ALTER COLUMN priority SET DEFAULT 0;
+ALTER TABLE tweets ALTER COLUMN priority SET NOT NULL;
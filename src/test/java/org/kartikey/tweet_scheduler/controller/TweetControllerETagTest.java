@@ -0,0 +1,78 @@
+package org.kartikey.tweet_scheduler.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.service.TweetService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TweetControllerETagTest {
+
+    private final TweetService tweetService = mock(TweetService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        TweetController controller = new TweetController();
+        ReflectionTestUtils.setField(controller, "tweetService", tweetService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        when(tweetService.getVersionTag()).thenReturn("v1");
+        when(tweetService.getScheduledTweets()).thenReturn(List.of());
+    }
+
+    @Test
+    void firstReadCarriesAWeakETag() throws Exception {
+        mockMvc.perform(get("/api/tweets/scheduled"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v1\""))
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void matchingTagIsAnsweredWithoutLoading() throws Exception {
+        mockMvc.perform(get("/api/tweets/scheduled").header(HttpHeaders.IF_NONE_MATCH, "W/\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v1\""))
+                .andExpect(content().string(""));
+
+        verify(tweetService, never()).getScheduledTweets();
+    }
+
+    @Test
+    void strongFormOfTheTagAlsoMatches() throws Exception {
+        // If-None-Match uses the weak comparison, and caches may strip or add the W/ prefix
+        mockMvc.perform(get("/api/tweets/scheduled").header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/tweets/scheduled").header(HttpHeaders.IF_NONE_MATCH, "\"v0\", W/\"v1\""))
+                .andExpect(status().isNotModified());
+
+        verify(tweetService, never()).getScheduledTweets();
+    }
+
+    @Test
+    void staleTagGetsTheNewBody() throws Exception {
+        when(tweetService.getVersionTag()).thenReturn("v2");
+
+        mockMvc.perform(get("/api/tweets/scheduled").header(HttpHeaders.IF_NONE_MATCH, "W/\"v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v2\""));
+
+        verify(tweetService, times(1)).getScheduledTweets();
+    }
+}
@@ -0,0 +1,245 @@
+package org.kartikey.tweet_scheduler.load;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.dto.PostBatchRequest;
+import org.kartikey.tweet_scheduler.dto.PostBatchResult;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.kartikey.tweet_scheduler.service.BatchPostingService;
+import org.kartikey.tweet_scheduler.service.TweetService;
+import org.kartikey.tweet_scheduler.support.FakeTwitterServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// End-to-end posting throughput against FakeTwitterServer. Excluded from the default build;
+// run with: mvn test -Pload-test  (tune with -Dloadtest.tweets, -Dloadtest.workers,
+// -Dloadtest.latency-ms, -Dloadtest.batch-size, -Dloadtest.min-posts-per-sec, -Dloadtest.max-p99-ms,
+// -Dloadtest.max-batch-p99-ms)
+@Tag("load")
+@SpringBootTest
+@TestPropertySource(locations = "classpath:loadtest.properties")
+class PostingLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PostingLoadTest.class);
+
+    private static final int TWEETS = Integer.getInteger("loadtest.tweets", 2000);
+    private static final int WORKERS = Integer.getInteger("loadtest.workers", 8);
+    private static final int BATCH_CLIENTS = Integer.getInteger("loadtest.batch-clients", 2);
+    private static final int BATCH_SIZE = Integer.getInteger("loadtest.batch-size", 50);
+    private static final long LATENCY_MS = Long.getLong("loadtest.latency-ms", 20);
+    private static final double MIN_POSTS_PER_SEC = Double.parseDouble(System.getProperty("loadtest.min-posts-per-sec", "50"));
+    private static final long MAX_P99_MS = Long.getLong("loadtest.max-p99-ms", 1000);
+    // Per 50-tweet call; Java 21 runs measured p99 at 2.7-2.9 s, so this leaves some headroom
+    private static final long MAX_BATCH_P99_MS = Long.getLong("loadtest.max-batch-p99-ms", 4000);
+    private static final long TIMEOUT_MS = Long.getLong("loadtest.timeout-ms", 120_000);
+
+    private static final FakeTwitterServer twitter = startTwitter();
+    private static final FakeTwitterServer.Tokens tokens = twitter.issueTokens();
+
+    @Autowired
+    private TweetService tweetService;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private BatchPostingService batchPostingService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private static FakeTwitterServer startTwitter() {
+        try {
+            return FakeTwitterServer.start()
+                    .latency(Long.getLong("loadtest.latency-ms", 20))
+                    .tokenLifetime(3)
+                    .rateLimitWindow(1_000_000, 1000)
+                    .throttleBursts(500);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void twitterProperties(DynamicPropertyRegistry registry) {
+        registry.add("twitter.api.base-url", twitter::baseUrl);
+        registry.add("TWITTER_OAUTH2_ACCESS_TOKEN", tokens::accessToken);
+        registry.add("TWITTER_OAUTH2_REFRESH_TOKEN", tokens::refreshToken);
+    }
+
+    @AfterAll
+    static void stopTwitter() {
+        twitter.close();
+    }
+
+    @Test
+    void postsBacklogThroughPostNextTweet() throws Exception {
+        drain("postNextTweet", WORKERS, MAX_P99_MS, latencies -> {
+            long t0 = System.nanoTime();
+            if (tweetService.postNextTweet().isPresent()) {
+                latencies.add(System.nanoTime() - t0);
+            } else {
+                // Nothing claimable right now (all in flight or throttled)
+                sleep(5);
+            }
+        });
+    }
+
+    // Latency here is per batch call, not per tweet, so it is held to the batch limit
+    @Test
+    void postsBacklogThroughBatchEndpoint() throws Exception {
+        drain("post-batch x" + BATCH_SIZE, BATCH_CLIENTS, MAX_BATCH_P99_MS, latencies -> {
+            long t0 = System.nanoTime();
+            PostBatchResult result = batchPostingService.postBatch(new PostBatchRequest(null, BATCH_SIZE)).join();
+            if (result.results().isEmpty()) {
+                sleep(5);
+            } else {
+                latencies.add(System.nanoTime() - t0);
+            }
+        });
+    }
+
+    private void drain(String driver, int clients, long maxP99Ms, Consumer<Queue<Long>> loop) throws Exception {
+        List<Tweet> backlog = new ArrayList<>(TWEETS);
+        for (int i = 0; i < TWEETS; i++) {
+            Tweet tweet = new Tweet();
+            tweet.setText(driver + " load test tweet " + i);
+            tweet.setPriority(i % 5);
+            backlog.add(tweet);
+        }
+        tweetService.saveAllTweets(backlog);
+        long createdBefore = twitter.createdCount();
+
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        PoolSampler sampler = new PoolSampler(hikari.getHikariPoolMXBean(), hikari.getMaximumPoolSize());
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients + 1);
+        workers.submit(() -> sampler.run(running));
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            workers.submit(() -> {
+                // A client's first call pays for JIT warm-up and the initial token refresh; keep it out of the percentiles
+                Queue<Long> warmup = new ConcurrentLinkedQueue<>();
+                while (running.get() && warmup.isEmpty()) {
+                    loop.accept(warmup);
+                }
+                while (running.get()) {
+                    loop.accept(latencies);
+                }
+            });
+        }
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        long remaining;
+        while ((remaining = tweetRepository.countByPostedFalse()) > 0 && System.currentTimeMillis() < deadline) {
+            sleep(50);
+        }
+        double elapsedSec = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        long created = twitter.createdCount() - createdBefore;
+        double postsPerSec = (TWEETS - remaining) / elapsedSec;
+        double p50 = percentileMillis(sorted, 0.50);
+        double p99 = percentileMillis(sorted, 0.99);
+
+        log.warn(String.format("""
+
+                ---- posting load test: %s ----
+                tweets          %d (%d clients, %d ms fake latency)
+                elapsed         %.2f s
+                throughput      %.1f posts/s
+                latency p50     %.1f ms
+                latency p99     %.1f ms
+                twitter         %d created, %d throttled (429), %d unauthorized (401), %d token refreshes
+                db pool         max %d, peak active %d, peak waiting %d, saturated %.1f%% of samples
+                ---------------------------""",
+                driver, TWEETS, clients, LATENCY_MS, elapsedSec, postsPerSec, p50, p99,
+                created, twitter.throttledCount(), twitter.unauthorizedCount(), twitter.refreshCount(),
+                sampler.maxPoolSize, sampler.peakActive, sampler.peakWaiting, sampler.saturatedPercent()));
+
+        assertEquals(0, remaining, "tweets left unposted");
+        assertEquals(TWEETS, created, "every tweet created exactly once");
+        assertTrue(postsPerSec >= MIN_POSTS_PER_SEC, "throughput " + postsPerSec + " < " + MIN_POSTS_PER_SEC);
+        assertTrue(p99 <= maxP99Ms, "p99 " + p99 + " ms > " + maxP99Ms + " ms");
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Samples Hikari every few ms; "saturated" means every connection busy or a thread queued for one
+    private static final class PoolSampler {
+
+        private final HikariPoolMXBean pool;
+        private final int maxPoolSize;
+        private int peakActive;
+        private int peakWaiting;
+        private long samples;
+        private long saturated;
+
+        PoolSampler(HikariPoolMXBean pool, int maxPoolSize) {
+            this.pool = pool;
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        void run(AtomicBoolean running) {
+            while (running.get()) {
+                int active = pool.getActiveConnections();
+                int waiting = pool.getThreadsAwaitingConnection();
+                peakActive = Math.max(peakActive, active);
+                peakWaiting = Math.max(peakWaiting, waiting);
+                samples++;
+                if (waiting > 0 || active >= maxPoolSize) {
+                    saturated++;
+                }
+                sleep(2);
+            }
+        }
+
+        double saturatedPercent() {
+            return samples == 0 ? 0 : 100.0 * saturated / samples;
+        }
+    }
+}
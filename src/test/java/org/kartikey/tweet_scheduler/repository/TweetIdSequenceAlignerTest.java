@@ -0,0 +1,57 @@
+package org.kartikey.tweet_scheduler.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(locations = "classpath:jpatest.properties")
+@Import(TweetIdSequenceAligner.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TweetIdSequenceAlignerTest {
+
+    @Autowired
+    private TweetIdSequenceAligner aligner;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearTweets() {
+        jdbcTemplate.update("DELETE FROM tweets");
+    }
+
+    // Runs before anything is saved in this context, as at startup: Hibernate hands out ids from
+    // its in-memory block without asking the sequence again
+    @Test
+    void newIdsClearRowsWrittenWithOldIds() {
+        // A row from the identity-column days, far ahead of the sequence
+        long legacyId = 100_000;
+        jdbcTemplate.update("INSERT INTO tweets (id, text, is_posted, created_at, priority, attempts) " +
+                "VALUES (?, 'legacy', false, ?, 0, 0)", legacyId, LocalDateTime.now());
+
+        aligner.align();
+
+        // Every id of the pooled block handed out next must clear it
+        for (int i = 0; i < TweetIdSequenceAligner.ALLOCATION_SIZE + 1; i++) {
+            Long id = tweetRepository.save(new Tweet("after alignment " + i)).getId();
+            assertTrue(id > legacyId, "id " + id);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.kartikey.tweet_scheduler.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.dto.PostingPlan;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostingPlannerTest {
+
+    private static final Instant FROM = Instant.parse("2024-03-10T06:00:00Z");
+    private static final Instant TO = Instant.parse("2024-03-10T18:00:00Z");
+
+    @Test
+    void spreadsSlotsEvenlyWithoutJitter() {
+        List<Instant> slots = PostingPlanner.slots(FROM, TO, 4, 0, new SplittableRandom(1));
+
+        assertEquals(List.of(
+                Instant.parse("2024-03-10T07:30:00Z"),
+                Instant.parse("2024-03-10T10:30:00Z"),
+                Instant.parse("2024-03-10T13:30:00Z"),
+                Instant.parse("2024-03-10T16:30:00Z")), slots);
+    }
+
+    @Test
+    void jitteredSlotsStayOrderedInsideTheirCell() {
+        Duration spacing = Duration.between(FROM, TO).dividedBy(12);
+        List<Instant> slots = PostingPlanner.slots(FROM, TO, 12, 1, new SplittableRandom(42));
+
+        assertEquals(12, slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            Instant cellStart = FROM.plus(spacing.multipliedBy(i));
+            assertTrue(!slots.get(i).isBefore(cellStart) && slots.get(i).isBefore(cellStart.plus(spacing)),
+                    "slot " + i + " at " + slots.get(i));
+        }
+    }
+
+    @Test
+    void noSlotsWhenNothingToPostOrNoTimeLeft() {
+        assertTrue(PostingPlanner.slots(FROM, TO, 0, 0.2, new SplittableRandom(1)).isEmpty());
+        assertTrue(PostingPlanner.slots(TO, FROM, 3, 0.2, new SplittableRandom(1)).isEmpty());
+    }
+
+    @Test
+    void budgetSharesTheMonthOverItsRemainingDays() {
+        // 300 of 500 left over 20 days -> 15 today
+        assertEquals(15, PostingPlanner.budgetForToday(17, 500, 0, 200, 20, 1000));
+        // Already posted 5 of today's 15
+        assertEquals(10, PostingPlanner.budgetForToday(17, 500, 5, 205, 20, 1000));
+        // Rounded up so the last days are not left with leftovers
+        assertEquals(2, PostingPlanner.budgetForToday(17, 500, 0, 497, 2, 1000));
+    }
+
+    @Test
+    void budgetNeverExceedsCapsOrBacklog() {
+        assertEquals(17, PostingPlanner.budgetForToday(17, 500, 0, 0, 1, 1000));
+        assertEquals(0, PostingPlanner.budgetForToday(17, 500, 17, 100, 10, 1000));
+        assertEquals(0, PostingPlanner.budgetForToday(17, 500, 3, 500, 10, 1000));
+        assertEquals(4, PostingPlanner.budgetForToday(17, 500, 0, 0, 30, 4));
+    }
+
+    @Test
+    void timedPostsReserveWhatIsLeftOfTheCaps() {
+        PostingPlanner planner = new PostingPlanner();
+        ReflectionTestUtils.setField(planner, "plan", new PostingPlan("UTC", 17, 500, 15, 100, 2, 400, 0, 0,
+                List.of(), FROM));
+
+        assertTrue(planner.tryReserve());
+        assertTrue(planner.tryReserve());
+        assertFalse(planner.tryReserve());
+
+        // A failed post gives its reservation back, a successful one keeps it until the next re-plan
+        planner.release(false);
+        assertTrue(planner.tryReserve());
+        planner.release(true);
+        assertFalse(planner.tryReserve());
+    }
+}
@@ -0,0 +1,54 @@
+package org.kartikey.tweet_scheduler.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void firesEachTimerAtItsTickAcrossLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 0);
+        long[] deadlines = {50, 100, 6_400, 6_450, 409_600, 3_600_000, 86_400_000};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule((long) i, deadlines[i]);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 86_400_000; now += 100) {
+            for (Long key : wheel.advance(now)) {
+                long deadline = deadlines[key.intValue()];
+                assertTrue(now >= deadline && now < deadline + 100, "timer " + key + " fired at " + now);
+                fired.add(key);
+            }
+        }
+        assertEquals(deadlines.length, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelAndRescheduleReplaceTheTimer() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 0);
+        wheel.schedule(1L, 1_000);
+        wheel.schedule(2L, 1_000);
+        wheel.schedule(2L, 500_000);
+
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+        assertEquals(List.of(), wheel.advance(1_000));
+        assertEquals(List.of(2L), wheel.advance(500_000));
+    }
+
+    @Test
+    void pastDeadlinesFireOnNextAdvance() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 10_000);
+        wheel.schedule(7L, 5_000);
+        assertTrue(wheel.contains(7L));
+        assertEquals(List.of(7L), wheel.advance(10_000));
+    }
+}
@@ -0,0 +1,64 @@
+package org.kartikey.tweet_scheduler.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverForgetsAnInsertedHash() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        SplittableRandom random = new SplittableRandom(42);
+        long[] h1 = new long[10_000];
+        long[] h2 = new long[10_000];
+        for (int i = 0; i < h1.length; i++) {
+            h1[i] = random.nextLong();
+            h2[i] = random.nextLong();
+            filter.put(h1[i], h2[i]);
+        }
+
+        for (int i = 0; i < h1.length; i++) {
+            assertTrue(filter.mightContain(h1[i], h2[i]));
+        }
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    void countsRepeatedInsertsOnce() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put(123L, 456L);
+        filter.put(123L, 456L);
+        assertEquals(1, filter.insertions());
+    }
+
+    @Test
+    void falsePositivesStayNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(random.nextLong(), random.nextLong());
+        }
+
+        int hits = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(random.nextLong(), random.nextLong())) {
+                hits++;
+            }
+        }
+        assertTrue(hits < 2_000, "false positives: " + hits);
+    }
+
+    @Test
+    void reportsSaturationPastCapacity() {
+        BloomFilter filter = new BloomFilter(10, 0.01);
+        for (int i = 0; i <= 10; i++) {
+            filter.put(i, i * 31L + 1);
+        }
+        assertTrue(filter.isSaturated());
+    }
+}
@@ -0,0 +1,60 @@
+package org.kartikey.tweet_scheduler.service;
+
+import com.twitter.clientlib.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostRetryQueueTest {
+
+    @Test
+    void backoffDoublesPerAttemptWithinJitterAndCap() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int attempt = 1; attempt <= 40; attempt++) {
+            long expected = Math.min(60_000, 1000L << Math.min(attempt - 1, 30));
+            for (int i = 0; i < 100; i++) {
+                long delay = PostRetryQueue.backoffMs(attempt, 1000, 60_000, random);
+                assertTrue(delay >= expected / 2 && delay <= expected, "attempt " + attempt + " delay " + delay);
+            }
+        }
+    }
+
+    @Test
+    void onlyRejectionsOfTheTweetItselfArePermanent() {
+        assertTrue(PostRetryQueue.isPermanent(new ApiException(403, "duplicate content")));
+        assertTrue(PostRetryQueue.isPermanent(new ApiException(400, "invalid")));
+
+        assertFalse(PostRetryQueue.isPermanent(new ApiException(401, "token")));
+        assertFalse(PostRetryQueue.isPermanent(new ApiException(429, "throttled")));
+        assertFalse(PostRetryQueue.isPermanent(new ApiException(503, "unavailable")));
+        assertFalse(PostRetryQueue.isPermanent(new IOException("connection reset")));
+        assertFalse(PostRetryQueue.isPermanent(new RateLimitedException("POST /2/tweets", Duration.ofSeconds(5))));
+    }
+
+    @Test
+    void throttlingDoesNotUseUpAnAttempt() {
+        assertEquals(3, PostRetryQueue.attemptsAfter(3, new RateLimitedException("POST /2/tweets", Duration.ofMinutes(15))));
+        assertEquals(4, PostRetryQueue.attemptsAfter(3, new ApiException(503, "unavailable")));
+        assertEquals(4, PostRetryQueue.attemptsAfter(3, new IOException("connection reset")));
+    }
+
+    @Test
+    void throttledRetriesAreSpreadAfterTheReset() {
+        SplittableRandom random = new SplittableRandom(7);
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            long delay = PostRetryQueue.throttledDelayMs(60_000, 30_000, random);
+            assertTrue(delay >= 60_000 && delay <= 90_000, "delay " + delay);
+            delays.add(delay);
+        }
+        assertTrue(delays.size() > 100, "only " + delays.size() + " distinct delays");
+    }
+}
@@ -0,0 +1,143 @@
+package org.kartikey.tweet_scheduler.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetHistory;
+import org.kartikey.tweet_scheduler.repository.TweetHistoryPartitions;
+import org.kartikey.tweet_scheduler.repository.TweetHistoryRepository;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(locations = "classpath:jpatest.properties", properties = {
+        "tweets.archive.batch-size=2",
+        "tweets.archive.retain-posted-ms=86400000"
+})
+@Import({TweetArchiver.class, TweetHistoryPartitions.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TweetArchiverTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TweetArchiver archiver;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private TweetHistoryRepository tweetHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private TweetCache tweetCache;
+
+    @MockitoBean
+    private TweetStatsService tweetStatsService;
+
+    @BeforeEach
+    void clearTables() {
+        jdbcTemplate.update("DELETE FROM tweets");
+        jdbcTemplate.update("DELETE FROM tweet_history");
+        clearInvocations(tweetCache, tweetStatsService);
+    }
+
+    @Test
+    void batchCopiesPostedRowsThenDeletesThem() {
+        LocalDateTime postedAt = LocalDateTime.now().minusDays(3).truncatedTo(ChronoUnit.SECONDS);
+        Tweet old = posted("old enough", postedAt);
+        old.setTwitterId("1001");
+        old.setPriority(7);
+        Long oldId = tweetRepository.save(old).getId();
+        Long recentId = tweetRepository.save(posted("posted just now", LocalDateTime.now())).getId();
+        Long pendingId = tweetRepository.save(new Tweet("not posted yet")).getId();
+        double archivedBefore = meterRegistry.get("tweets.archived").counter().count();
+
+        assertEquals(1, archiver.archiveBatch(LocalDateTime.now().minusDays(1)));
+
+        // Gone from the hot table, everything else left alone
+        assertTrue(tweetRepository.findById(oldId).isEmpty());
+        assertTrue(tweetRepository.findById(recentId).isPresent());
+        assertTrue(tweetRepository.findById(pendingId).isPresent());
+
+        // Same id and content in the archive
+        TweetHistory history = tweetHistoryRepository.findById(oldId).orElseThrow();
+        assertEquals("old enough", history.getText());
+        assertEquals("1001", history.getTwitterId());
+        assertEquals(7, history.getPriority());
+        assertEquals(postedAt, history.getPostedAt());
+        assertEquals(old.getContentHash(), history.getContentHash());
+        assertEquals(1, tweetHistoryRepository.count());
+
+        verify(tweetCache).evict(List.of(oldId));
+        verify(tweetStatsService).onArchived(1);
+        assertEquals(archivedBefore + 1, meterRegistry.get("tweets.archived").counter().count());
+    }
+
+    @Test
+    void archiveRunsBatchesUntilNothingIsLeft() {
+        LocalDateTime postedAt = LocalDateTime.now().minusDays(2);
+        for (int i = 0; i < 5; i++) {
+            tweetRepository.save(posted("archived " + i, postedAt));
+        }
+
+        archiver.archive();
+
+        assertEquals(0, tweetRepository.count());
+        assertEquals(5, tweetHistoryRepository.count());
+        verify(tweetStatsService, times(2)).onArchived(2);
+        verify(tweetStatsService).onArchived(1);
+    }
+
+    @Test
+    void nothingToArchiveTouchesNothing() {
+        tweetRepository.save(new Tweet("still pending"));
+
+        assertEquals(0, archiver.archiveBatch(LocalDateTime.now()));
+
+        assertEquals(1, tweetRepository.count());
+        assertEquals(0, tweetHistoryRepository.count());
+    }
+
+    private static Tweet posted(String text, LocalDateTime postedAt) {
+        Tweet tweet = new Tweet(text);
+        tweet.setPosted(true);
+        tweet.setPostedAt(postedAt);
+        return tweet;
+    }
+}
@@ -0,0 +1,136 @@
+package org.kartikey.tweet_scheduler.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.dto.TweetSummary;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TweetCacheTest {
+
+    private final TweetCache cache = new TweetCache();
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, Optional<Tweet>> loader = id -> {
+        loads.incrementAndGet();
+        Tweet tweet = new Tweet("tweet " + id);
+        tweet.setId(id);
+        return Optional.of(tweet);
+    };
+
+    private final AtomicInteger viewLoads = new AtomicInteger();
+    private final Supplier<List<TweetSummary>> viewLoader = () -> {
+        viewLoads.incrementAndGet();
+        return List.of();
+    };
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlMs", 3_600_000L);
+        cache.init();
+    }
+
+    @Test
+    void callersGetTheirOwnCopies() {
+        Tweet first = cache.get(1L, loader).orElseThrow();
+        first.setText("changed by a caller");
+        first.setPosted(true);
+
+        Tweet second = cache.get(1L, loader).orElseThrow();
+        assertNotSame(first, second);
+        assertEquals("tweet 1", second.getText());
+        assertFalse(second.isPosted());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void missesAreNotCached() {
+        assertTrue(cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+
+        assertTrue(cache.get(1L, loader).isPresent());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictDropsOnlyTheGivenTweets() {
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        cache.get(3L, loader);
+
+        cache.evict(List.of(1L, 2L));
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        cache.get(3L, loader);
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void eventsEvictTheirTweetsAndOnlyTheViewsTheyTouch() {
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        cache.view(TweetCache.View.UNPOSTED, viewLoader);
+        cache.view(TweetCache.View.SCHEDULED, viewLoader);
+
+        // An unscheduled tweet being posted leaves the unposted view only
+        Tweet posted = new Tweet("tweet 1");
+        posted.setId(1L);
+        posted.setPosted(true);
+        cache.onTweetEvent(TweetEvent.of(TweetEvent.Type.POSTED, posted));
+
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        assertEquals(3, loads.get());
+        cache.view(TweetCache.View.UNPOSTED, viewLoader);
+        cache.view(TweetCache.View.SCHEDULED, viewLoader);
+        assertEquals(3, viewLoads.get());
+
+        // A scheduled tweet being created shows up in both
+        Tweet scheduled = new Tweet("later");
+        scheduled.setId(3L);
+        scheduled.setScheduledFor(LocalDateTime.now().plusDays(1));
+        cache.onTweetEvent(TweetEvent.of(TweetEvent.Type.CREATED, scheduled));
+
+        cache.view(TweetCache.View.UNPOSTED, viewLoader);
+        cache.view(TweetCache.View.SCHEDULED, viewLoader);
+        assertEquals(5, viewLoads.get());
+    }
+
+    @Test
+    void versionTagMovesWithEveryWrite() {
+        String initial = cache.versionTag();
+        assertEquals(initial, cache.versionTag());
+
+        cache.evict(List.of());
+        assertEquals(initial, cache.versionTag());
+
+        cache.evict(1L);
+        String afterEvict = cache.versionTag();
+        assertNotEquals(initial, afterEvict);
+
+        Tweet created = new Tweet("new");
+        created.setId(4L);
+        cache.onTweetEvent(TweetEvent.of(TweetEvent.Type.CREATED, created));
+        assertNotEquals(afterEvict, cache.versionTag());
+    }
+}
@@ -0,0 +1,141 @@
+package org.kartikey.tweet_scheduler.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.model.TweetStatus;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Claims commit in their own transactions, so the test runs outside the usual rollback-only one
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(locations = "classpath:jpatest.properties")
+@Import(TweetClaimService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TweetClaimServiceTest {
+
+    @Autowired
+    private TweetClaimService claims;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+    @BeforeEach
+    void clearTweets() {
+        jdbcTemplate.update("DELETE FROM tweets");
+    }
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void twoClaimersRaceForOneTweetAndOneWins() throws Exception {
+        Long id = tweetRepository.save(new Tweet("contended")).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<Boolean> claim = () -> {
+            start.await();
+            return claims.claim(id);
+        };
+        Future<Boolean> first = pool.submit(claim);
+        Future<Boolean> second = pool.submit(claim);
+        start.countDown();
+
+        assertEquals(1, Stream.of(first.get(), second.get()).filter(won -> won).count());
+        Tweet claimed = tweetRepository.findById(id).orElseThrow();
+        assertEquals(TweetStatus.IN_FLIGHT, claimed.getStatus());
+        assertEquals(claims.getOwner(), claimed.getLeaseOwner());
+    }
+
+    @Test
+    void concurrentBatchClaimsAreDisjoint() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tweetRepository.save(new Tweet("batch " + i));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<List<Long>> claimBatch = () -> {
+            start.await();
+            return claims.claimBatch(5, null, Set.of());
+        };
+        Future<List<Long>> first = pool.submit(claimBatch);
+        Future<List<Long>> second = pool.submit(claimBatch);
+        start.countDown();
+
+        List<Long> all = new ArrayList<>(first.get());
+        all.addAll(second.get());
+        assertEquals(10, all.size());
+        assertEquals(10, new HashSet<>(all).size());
+
+        // Everything is leased now
+        assertTrue(claims.claimBatch(5, null, Set.of()).isEmpty());
+    }
+
+    @Test
+    void expiredLeaseCanBeClaimedAgain() {
+        Long id = tweetRepository.save(new Tweet("lease lapses")).getId();
+
+        assertTrue(claims.claim(id));
+        assertFalse(claims.claim(id));
+        assertTrue(claims.claimBatch(10, null, Set.of()).isEmpty());
+
+        // The holder went away without completing or failing the post
+        jdbcTemplate.update("UPDATE tweets SET lease_expires_at = ? WHERE id = ?",
+                LocalDateTime.now().minusMinutes(1), id);
+
+        assertEquals(List.of(id), claims.claimBatch(10, null, Set.of()));
+        assertFalse(claims.claim(id));
+
+        jdbcTemplate.update("UPDATE tweets SET lease_expires_at = ? WHERE id = ?",
+                LocalDateTime.now().minusMinutes(1), id);
+        assertTrue(claims.claim(id));
+    }
+
+    @Test
+    void postedAndDeadTweetsAreNeverClaimed() {
+        Tweet posted = new Tweet("already out");
+        posted.setPosted(true);
+        posted.setPostedAt(LocalDateTime.now());
+        Long postedId = tweetRepository.save(posted).getId();
+
+        Tweet dead = new Tweet("gave up");
+        dead.setStatus(TweetStatus.DEAD);
+        Long deadId = tweetRepository.save(dead).getId();
+
+        assertFalse(claims.claim(postedId));
+        assertFalse(claims.claim(deadId));
+        assertTrue(claims.claimBatch(10, null, Set.of()).isEmpty());
+    }
+}
@@ -0,0 +1,92 @@
+package org.kartikey.tweet_scheduler.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TweetEventStreamTest {
+
+    private static final int BUFFER_SIZE = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TweetEventStream stream = new TweetEventStream();
+
+    // Holds the only sender thread, so published events pile up in the subscriber buffers
+    private final CountDownLatch sendersBusy = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stream, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(stream, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(stream, "bufferSize", BUFFER_SIZE);
+        ReflectionTestUtils.setField(stream, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(stream, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(stream, "heartbeatMs", 60_000L);
+        ReflectionTestUtils.setField(stream, "senderThreads", 1);
+        ReflectionTestUtils.setField(stream, "sendTimeoutMs", 60_000L);
+        stream.init();
+
+        ThreadPoolExecutor senders = (ThreadPoolExecutor) ReflectionTestUtils.getField(stream, "senders");
+        senders.execute(() -> {
+            try {
+                sendersBusy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        sendersBusy.countDown();
+        stream.shutdown();
+    }
+
+    @Test
+    void subscriberWithAFullBufferIsDropped() {
+        assertTrue(stream.subscribe().isPresent());
+
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            stream.onTweetEvent(TweetEvent.of(TweetEvent.Type.CREATED, tweet(i)));
+        }
+        assertEquals(1, stream.getSubscriberCount());
+        assertEquals(0.0, meterRegistry.get("tweets.events.dropped").counter().count());
+
+        // One more than fits: the publisher does not wait, the subscriber goes
+        stream.publishFailed(tweet(BUFFER_SIZE));
+
+        assertEquals(0, stream.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.get("tweets.events.dropped").counter().count());
+        assertEquals(0.0, meterRegistry.get("tweets.events.subscribers").gauge().value());
+
+        // Its slot is free again
+        assertTrue(stream.subscribe().isPresent());
+        assertEquals(1, stream.getSubscriberCount());
+    }
+
+    @Test
+    void subscriberLimitIsEnforced() {
+        assertTrue(stream.subscribe().isPresent());
+        assertTrue(stream.subscribe().isPresent());
+
+        assertTrue(stream.subscribe().isEmpty());
+        assertEquals(2, stream.getSubscriberCount());
+    }
+
+    private static Tweet tweet(int i) {
+        Tweet tweet = new Tweet("event " + i);
+        tweet.setId((long) i + 1);
+        return tweet;
+    }
+}
@@ -0,0 +1,77 @@
+package org.kartikey.tweet_scheduler.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kartikey.tweet_scheduler.dto.TweetStats;
+import org.kartikey.tweet_scheduler.event.TweetEvent;
+import org.kartikey.tweet_scheduler.model.Tweet;
+import org.kartikey.tweet_scheduler.repository.TweetHistoryRepository;
+import org.kartikey.tweet_scheduler.repository.TweetRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TweetStatsServiceTest {
+
+    private final TweetRepository tweetRepository = mock(TweetRepository.class);
+    private final TweetHistoryRepository tweetHistoryRepository = mock(TweetHistoryRepository.class);
+    private final TweetStatsService stats = new TweetStatsService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stats, "tweetRepository", tweetRepository);
+        ReflectionTestUtils.setField(stats, "tweetHistoryRepository", tweetHistoryRepository);
+        when(tweetHistoryRepository.count()).thenReturn(5L);
+        when(tweetRepository.aggregateStats(any())).thenReturn(new TweetStats(10, 4, 6, 1));
+        stats.init();
+    }
+
+    @Test
+    void reconcileAddsTheArchiveWithoutRecountingIt() {
+        assertEquals(new TweetStats(15, 9, 6, 1), stats.getStats());
+
+        // Archived rows leave tweets; the archive counter picks them up
+        stats.onArchived(2);
+        when(tweetRepository.aggregateStats(any())).thenReturn(new TweetStats(8, 2, 6, 1));
+        stats.reconcile();
+
+        assertEquals(new TweetStats(15, 9, 6, 1), stats.getStats());
+    }
+
+    @Test
+    void writesDuringReconcileAreReplayedOnTheFreshSnapshot() {
+        // The DB has drifted from the counters (e.g. another instance wrote); a create lands mid-query
+        when(tweetRepository.aggregateStats(any())).thenAnswer(invocation -> {
+            stats.onTweetEvent(TweetEvent.of(TweetEvent.Type.CREATED, new Tweet("during the query")));
+            return new TweetStats(20, 4, 16, 1);
+        });
+        stats.reconcile();
+
+        // Fresh totals, archive, and the create the query could not have seen
+        assertEquals(new TweetStats(26, 9, 17, 1), stats.getStats());
+
+        // The window is closed: later writes only apply once
+        stats.onTweetEvent(TweetEvent.of(TweetEvent.Type.CREATED, new Tweet("after")));
+        assertEquals(new TweetStats(27, 9, 18, 1), stats.getStats());
+    }
+
+    @Test
+    void updatesMoveTweetsBetweenBucketsWithoutAQuery() {
+        Tweet tweet = new Tweet("rescheduled");
+        tweet.setScheduledFor(LocalDateTime.now().plusDays(1));
+        TweetEvent.Before before = new TweetEvent.Before(false, null);
+
+        stats.onTweetEvent(TweetEvent.updated(tweet, before));
+        assertEquals(new TweetStats(15, 9, 6, 2), stats.getStats());
+
+        TweetEvent.Before scheduled = TweetEvent.Before.of(tweet);
+        tweet.setScheduledFor(null);
+        stats.onTweetEvent(TweetEvent.updated(tweet, scheduled));
+        assertEquals(new TweetStats(15, 9, 6, 1), stats.getStats());
+    }
+}
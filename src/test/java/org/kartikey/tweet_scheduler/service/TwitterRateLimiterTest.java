@@ -0,0 +1,43 @@
+package org.kartikey.tweet_scheduler.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TwitterRateLimiterTest {
+
+    private static final String ENDPOINT = "POST /2/tweets";
+
+    @Test
+    void headersCapTheBucketUntilReset() {
+        TwitterRateLimiter limiter = new TwitterRateLimiter(100, 900_000);
+        long resetSeconds = System.currentTimeMillis() / 1000 + 600;
+
+        assertEquals(0, limiter.tryAcquire(ENDPOINT));
+        limiter.update(ENDPOINT, Map.of(
+                "x-rate-limit-limit", List.of("17"),
+                "x-rate-limit-remaining", List.of("1"),
+                "x-rate-limit-reset", List.of(String.valueOf(resetSeconds))));
+
+        assertEquals(0, limiter.tryAcquire(ENDPOINT));
+        long wait = limiter.tryAcquire(ENDPOINT);
+        assertTrue(wait > 590_000 && wait <= 600_000, "wait was " + wait);
+    }
+
+    @Test
+    void throttledResponseBlocksUntilReportedReset() {
+        TwitterRateLimiter limiter = new TwitterRateLimiter(100, 900_000);
+        long resetSeconds = System.currentTimeMillis() / 1000 + 60;
+
+        long retryAfter = limiter.onThrottled(ENDPOINT, Map.of(
+                "X-Rate-Limit-Reset", List.of(String.valueOf(resetSeconds))));
+
+        assertTrue(retryAfter > 55_000 && retryAfter <= 60_000, "retryAfter was " + retryAfter);
+        assertEquals(0, limiter.remaining(ENDPOINT));
+        assertTrue(limiter.tryAcquire(ENDPOINT) > 0);
+    }
+}
@@ -0,0 +1,229 @@
+package org.kartikey.tweet_scheduler.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process stand-in for the two Twitter endpoints the app calls: POST /2/tweets and
+// POST /2/oauth2/token. Latency, the rate-limit window, 429 bursts and token lifetime are
+// all adjustable, so posting can be exercised end to end without touching the real API.
+// Rate-limit headers stay consistent within a window, like Twitter's.
+public class FakeTwitterServer implements AutoCloseable {
+
+    public record Tokens(String accessToken, String refreshToken) {
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(32);
+
+    // access token -> expiry (epoch ms); refresh tokens are single use, as on Twitter
+    private final Map<String, Long> accessTokens = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> refreshTokens = new ConcurrentHashMap<>();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong unauthorized = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private volatile long latencyMs;
+    private volatile long tokenLifetimeSeconds = 7200;
+    private volatile int burstEvery;
+    private volatile int windowLimit = 1_000_000;
+    private volatile long windowMs = 900_000;
+
+    private long windowResetAt;
+    private int windowUsed;
+
+    private FakeTwitterServer() throws IOException {
+        // Otherwise delayed ACKs add ~40 ms to every keep-alive response and swamp the configured latency
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/2/tweets", this::createTweet);
+        server.createContext("/2/oauth2/token", this::refreshToken);
+        server.setExecutor(executor);
+    }
+
+    public static FakeTwitterServer start() throws IOException {
+        FakeTwitterServer fake = new FakeTwitterServer();
+        fake.server.start();
+        return fake;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public Tokens issueTokens() {
+        String access = "access-" + UUID.randomUUID();
+        String refresh = "refresh-" + UUID.randomUUID();
+        accessTokens.put(access, System.currentTimeMillis() + tokenLifetimeSeconds * 1000);
+        refreshTokens.put(refresh, Boolean.TRUE);
+        return new Tokens(access, refresh);
+    }
+
+    public FakeTwitterServer latency(long millis) {
+        this.latencyMs = millis;
+        return this;
+    }
+
+    public FakeTwitterServer tokenLifetime(long seconds) {
+        this.tokenLifetimeSeconds = seconds;
+        return this;
+    }
+
+    // After every 'creates' tweets the rest of the current window is used up (as if another
+    // client shared the quota), so requests get 429s until the window resets
+    public FakeTwitterServer throttleBursts(int creates) {
+        this.burstEvery = creates;
+        return this;
+    }
+
+    public FakeTwitterServer rateLimitWindow(int limit, long windowMillis) {
+        this.windowLimit = limit;
+        this.windowMs = windowMillis;
+        return this;
+    }
+
+    public long createdCount() {
+        return created.get();
+    }
+
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    public long unauthorizedCount() {
+        return unauthorized.get();
+    }
+
+    public long refreshCount() {
+        return refreshes.get();
+    }
+
+    private void createTweet(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            pause();
+
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "{}");
+                return;
+            }
+            if (!authorized(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                unauthorized.incrementAndGet();
+                send(exchange, 401, "{\"title\":\"Unauthorized\",\"type\":\"about:blank\",\"status\":401,\"detail\":\"Unauthorized\"}");
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            int remaining;
+            long resetAt;
+            synchronized (this) {
+                if (now >= windowResetAt) {
+                    windowResetAt = now + windowMs;
+                    windowUsed = 0;
+                }
+                remaining = windowLimit - ++windowUsed;
+                resetAt = windowResetAt;
+            }
+            if (remaining < 0) {
+                throttled.incrementAndGet();
+                rateLimitHeaders(exchange, windowLimit, 0, resetAt);
+                send(exchange, 429, "{\"title\":\"Too Many Requests\",\"type\":\"about:blank\",\"status\":429,\"detail\":\"Too Many Requests\"}");
+                return;
+            }
+
+            long n = created.incrementAndGet();
+            if (burstEvery > 0 && n % burstEvery == 0) {
+                synchronized (this) {
+                    windowUsed = windowLimit;
+                }
+            }
+            String id = String.valueOf(1_000_000_000L + n);
+            rateLimitHeaders(exchange, windowLimit, remaining, resetAt);
+            send(exchange, 201, "{\"data\":{\"id\":\"" + id + "\",\"text\":\"ok\"}}");
+        }
+    }
+
+    private void refreshToken(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            pause();
+
+            String refresh = formValue(body, "refresh_token");
+            if (!"refresh_token".equals(formValue(body, "grant_type"))
+                    || refresh == null || refreshTokens.remove(refresh) == null) {
+                send(exchange, 400, "{\"error\":\"invalid_request\",\"error_description\":\"Value passed for the token was invalid.\"}");
+                return;
+            }
+
+            refreshes.incrementAndGet();
+            Tokens tokens = issueTokens();
+            send(exchange, 200, "{\"token_type\":\"bearer\",\"expires_in\":" + tokenLifetimeSeconds +
+                    ",\"access_token\":\"" + tokens.accessToken() + "\",\"scope\":\"tweet.write offline.access\"" +
+                    ",\"refresh_token\":\"" + tokens.refreshToken() + "\"}");
+        }
+    }
+
+    private boolean authorized(String header) {
+        if (header == null || !header.startsWith("Bearer ")) {
+            return false;
+        }
+        Long expiresAt = accessTokens.get(header.substring("Bearer ".length()));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private void pause() {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void rateLimitHeaders(HttpExchange exchange, int limit, int remaining, long resetAtMs) {
+        exchange.getResponseHeaders().set("x-rate-limit-limit", String.valueOf(limit));
+        exchange.getResponseHeaders().set("x-rate-limit-remaining", String.valueOf(remaining));
+        // Epoch seconds, rounded up like Twitter's
+        exchange.getResponseHeaders().set("x-rate-limit-reset", String.valueOf((resetAtMs + 999) / 1000));
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String formValue(String form, String name) {
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}